@@ -0,0 +1,39 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+package de.andreasschoknecht.Corpus;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The interface CorpusEntry represents one PNML document of a corpus. Entries are handed out by a CorpusSource in corpus order, but
+ * may be opened by any thread, such that several documents can be decompressed and parsed at the same time.
+ */
+public interface CorpusEntry {
+
+	/**
+	 * Opens the PNML document of this entry. The caller has to close the returned stream.
+	 *
+	 * @return Returns a stream providing the PNML document.
+	 * @throws IOException Signals that the document could not be read.
+	 */
+	public InputStream open() throws IOException;
+
+	/* Getter methods */
+	/* ------------------------- */
+	/** Returns the file name of the PNML document without any directories. */
+	public String getName();
+
+	/** Returns the full path of the PNML document, which for archives is the path of the archive followed by ! and the entry name. */
+	public String getPath();
+	/* ------------------------- */
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+package de.andreasschoknecht.Corpus;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The interface CorpusSource provides the PNML documents of a corpus, e.g. from a directory or an archive. The entries are read
+ * sequentially by a single thread, while the returned entries can be opened concurrently by other threads until the source is closed.
+ */
+public interface CorpusSource extends Closeable {
+
+	/**
+	 * Reads the next PNML document of the corpus. Files not ending with .pnml are skipped.
+	 *
+	 * @return Returns the next entry or null if all entries have been read.
+	 * @throws IOException Signals that the corpus could not be read.
+	 */
+	public CorpusEntry nextEntry() throws IOException;
+
+	/**
+	 * Returns the number of PNML documents of the corpus if it is known without reading the whole corpus.
+	 *
+	 * @return Returns the number of entries or -1 if it is not known in advance.
+	 */
+	public int getAmountOfEntries();
+
+}
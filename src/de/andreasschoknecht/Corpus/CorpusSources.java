@@ -0,0 +1,55 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+package de.andreasschoknecht.Corpus;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The class CorpusSources creates the corpus source suitable for a directory or an archive file.
+ */
+public class CorpusSources {
+
+	private CorpusSources() {
+	}
+
+	/**
+	 * Opens a corpus stored as a directory, a zip archive (.zip) or a gzip compressed tar archive (.tar.gz or .tgz).
+	 *
+	 * @param file The directory or archive containing the PNML files.
+	 * @return Returns the opened corpus source, which has to be closed by the caller.
+	 * @throws IOException Signals that the corpus could not be opened.
+	 * @throws IllegalArgumentException if the file is neither a directory nor an archive of a supported type.
+	 */
+	public static CorpusSource open(File file) throws IOException {
+		if (file.isDirectory())
+			return new DirectoryCorpusSource(file);
+
+		String name = file.getName().toLowerCase();
+		if (name.endsWith(".zip"))
+			return new ZipCorpusSource(file);
+		if (name.endsWith(".tar.gz") || name.endsWith(".tgz"))
+			return new TarGzCorpusSource(file);
+
+		throw new IllegalArgumentException("The corpus " + file.getAbsolutePath() + " is neither a directory nor a .zip, .tar.gz or .tgz archive.");
+	}
+
+	/**
+	 * Removes all directories from the path of an archive entry.
+	 *
+	 * @param entryName The path of the entry inside the archive, separated by /.
+	 * @return Returns the file name of the entry.
+	 */
+	static String baseName(String entryName) {
+		return entryName.substring(entryName.lastIndexOf('/') + 1);
+	}
+
+}
@@ -0,0 +1,92 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+package de.andreasschoknecht.Corpus;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The class DirectoryCorpusSource provides the PNML files contained in a directory. Subdirectories are not searched.
+ */
+public class DirectoryCorpusSource implements CorpusSource {
+
+	/** The PNML files of the directory. */
+	private final File[] files;
+
+	/** The position of the next file to return. */
+	private int position;
+
+	/**
+	 * Instantiates a new directory corpus source.
+	 *
+	 * @param dir The directory containing the PNML files.
+	 * @throws IOException Signals that the directory could not be read.
+	 */
+	public DirectoryCorpusSource(File dir) throws IOException {
+		// Filter PNML files
+		files = dir.listFiles(new FilenameFilter() {
+			public boolean accept(File d, String name) {
+				return name.endsWith(".pnml");
+			}
+		});
+		if (files == null)
+			throw new IOException("Could not open directory " + dir.getAbsolutePath());
+	}
+
+	@Override
+	public CorpusEntry nextEntry() {
+		if (position == files.length)
+			return null;
+		return new FileEntry(files[position++]);
+	}
+
+	@Override
+	public int getAmountOfEntries() {
+		return files.length;
+	}
+
+	@Override
+	public void close() {
+		// Nothing to release, the files are opened by the entries.
+	}
+
+	/**
+	 * A PNML file of the directory.
+	 */
+	private static class FileEntry implements CorpusEntry {
+
+		private final File file;
+
+		private FileEntry(File file) {
+			this.file = file;
+		}
+
+		@Override
+		public InputStream open() throws IOException {
+			return new BufferedInputStream(new FileInputStream(file), 1 << 16);
+		}
+
+		@Override
+		public String getName() {
+			return file.getName();
+		}
+
+		@Override
+		public String getPath() {
+			return file.getAbsolutePath();
+		}
+	}
+
+}
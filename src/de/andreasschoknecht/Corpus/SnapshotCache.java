@@ -0,0 +1,166 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+package de.andreasschoknecht.Corpus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.andreasschoknecht.PetriNet.PetriNet;
+import de.andreasschoknecht.PetriNet.PetriNetSnapshot;
+import de.andreasschoknecht.Preprocessing.LabelPreprocessor;
+
+/**
+ * The class SnapshotCache stores snapshots of parsed and preprocessed labeled workflow nets in a directory. A snapshot is keyed by
+ * the SHA-256 hash of the PNML document and the configuration of the label preprocessor, so changed documents and runs with another
+ * kind or configuration of label preprocessor miss the cache and are processed again. The cache can be used by several threads and
+ * runs at the same time.
+ */
+public class SnapshotCache {
+
+	/** The file ending of snapshot files. */
+	private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+	/** The directory containing the snapshot files. */
+	private final File dir;
+
+	/** Writes and reads the snapshots. */
+	private final PetriNetSnapshot snapshot = new PetriNetSnapshot();
+
+	/** The number of nets restored from and missing in the cache. */
+	private final AtomicInteger hits = new AtomicInteger(), misses = new AtomicInteger();
+
+	/**
+	 * Instantiates a new snapshot cache. The directory is created if it does not exist.
+	 *
+	 * @param dir The directory containing the snapshot files.
+	 * @throws IOException Signals that the directory could not be created.
+	 */
+	public SnapshotCache(File dir) throws IOException {
+		if (!dir.isDirectory() && !dir.mkdirs())
+			throw new IOException("Could not create directory " + dir.getAbsolutePath());
+		this.dir = dir;
+	}
+
+	/**
+	 * Calculates the key of the snapshot of a PNML document.
+	 *
+	 * @param content The bytes of the PNML document.
+	 * @param preprocessor The label preprocessor used for preprocessing the transitions.
+	 * @return Returns the key as hexadecimal string.
+	 */
+	public String key(byte[] content, LabelPreprocessor preprocessor) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform has to support SHA-256.
+			throw new IllegalStateException(e);
+		}
+		digest.update( (PetriNetSnapshot.FORMAT_VERSION + "\n" + preprocessor.getConfigurationId() + "\n").getBytes(StandardCharsets.UTF_8) );
+		digest.update(content);
+
+		StringBuilder key = new StringBuilder(64);
+		for (byte b: digest.digest()) {
+			key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Restores a labeled workflow net from its snapshot. Unreadable snapshots are treated as missing.
+	 *
+	 * @param net The empty labeled workflow net to restore.
+	 * @param key The key of the snapshot.
+	 * @return Returns true if the net has been restored, false if there is no usable snapshot.
+	 */
+	public boolean restore(PetriNet net, String key) {
+		try {
+			File file = file(key);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				snapshot.read(net, in, file.length());
+			} finally {
+				in.close();
+			}
+			hits.incrementAndGet();
+			return true;
+		} catch (FileNotFoundException e) {
+			misses.incrementAndGet();
+			return false;
+		} catch (IOException e) {
+			System.out.println("Ignoring unreadable snapshot " + file(key).getAbsolutePath());
+			misses.incrementAndGet();
+			return false;
+		}
+	}
+
+	/**
+	 * Stores the snapshot of a preprocessed labeled workflow net. The snapshot is written to a temporary file first, such that
+	 * concurrent readers never see incomplete snapshots.
+	 *
+	 * @param net The preprocessed labeled workflow net.
+	 * @param key The key of the snapshot.
+	 * @throws IOException Signals that the snapshot could not be written.
+	 */
+	public void store(PetriNet net, String key) throws IOException {
+		File tempFile = File.createTempFile(key, ".tmp", dir);
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				snapshot.write(net, out);
+			} finally {
+				out.close();
+			}
+
+			try {
+				Files.move(tempFile.toPath(), file(key).toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), file(key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	private File file(String key) {
+		return new File(dir, key + SNAPSHOT_SUFFIX);
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public File getDir() {
+		return dir;
+	}
+
+	public int getAmountOfHits() {
+		return hits.get();
+	}
+
+	public int getAmountOfMisses() {
+		return misses.get();
+	}
+	/* ------------------------- */
+
+}
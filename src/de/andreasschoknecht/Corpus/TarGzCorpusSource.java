@@ -0,0 +1,299 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+package de.andreasschoknecht.Corpus;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The class TarGzCorpusSource provides the PNML files contained in a gzip compressed tar archive, including those in directories of
+ * the archive.
+ *
+ * A gzip stream can only be decompressed sequentially, so nextEntry reads the archive up to the next PNML file and keeps the
+ * decompressed file in memory. The returned entries can then be parsed concurrently while the archive is read further. Nothing is
+ * extracted to disk. The ustar format as well as GNU and PAX long file names are supported.
+ */
+public class TarGzCorpusSource implements CorpusSource {
+
+	/** The size of tar headers and the unit to which the content of tar entries is padded. */
+	private static final int BLOCK_SIZE = 512;
+
+	/** The decompressed tar stream. */
+	private final InputStream in;
+
+	/** The path of the archive. */
+	private final String archivePath;
+
+	/** The header block currently read. */
+	private final byte[] header = new byte[BLOCK_SIZE];
+
+	/** Whether the end of the archive has been reached. */
+	private boolean finished;
+
+	/**
+	 * Opens a gzip compressed tar archive.
+	 *
+	 * @param file The archive containing the PNML files.
+	 * @throws IOException Signals that the archive could not be opened.
+	 */
+	public TarGzCorpusSource(File file) throws IOException {
+		this.archivePath = file.getPath();
+		InputStream fileStream = new FileInputStream(file);
+		try {
+			this.in = new BufferedInputStream(new GZIPInputStream(fileStream, 1 << 16), 1 << 16);
+		} catch (IOException e) {
+			fileStream.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public CorpusEntry nextEntry() throws IOException {
+		String longName = null;
+		while (!finished) {
+			if (!readHeader()) {
+				finished = true;
+				break;
+			}
+
+			String name = (longName != null) ? longName : headerName();
+			longName = null;
+			long size = headerSize();
+			byte type = header[156];
+
+			if (type == 'L') {
+				// GNU long name of the following entry
+				longName = trimNull(new String(readContent(size), StandardCharsets.UTF_8));
+			} else if (type == 'x') {
+				// PAX extended header of the following entry
+				longName = paxPath(readContent(size));
+			} else if ((type == '0' || type == 0 || type == '7') && name.endsWith(".pnml")) {
+				return new Entry(name, readContent(size));
+			} else {
+				skipContent(size);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public int getAmountOfEntries() {
+		return -1;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Reads the next header block.
+	 *
+	 * @return Returns false if the end of the archive has been reached.
+	 * @throws IOException Signals that the archive could not be read.
+	 */
+	private boolean readHeader() throws IOException {
+		int read = 0;
+		while (read < BLOCK_SIZE) {
+			int count = in.read(header, read, BLOCK_SIZE - read);
+			if (count < 0) {
+				if (read == 0)
+					return false;
+				throw new EOFException("Truncated tar header in " + archivePath);
+			}
+			read += count;
+		}
+
+		// The archive ends with blocks of zeros.
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			if (header[i] != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the name of the current header, including the prefix of the ustar format.
+	 *
+	 * @return Returns the path of the entry inside the archive.
+	 */
+	private String headerName() {
+		String name = headerString(0, 100);
+		boolean ustar = header[257] == 'u' && header[258] == 's' && header[259] == 't' && header[260] == 'a' && header[261] == 'r';
+		if (ustar) {
+			String prefix = headerString(345, 155);
+			if (prefix.length() > 0)
+				return prefix + "/" + name;
+		}
+		return name;
+	}
+
+	/**
+	 * Reads the size of the content of the current entry, which is stored as octal number or, for large entries, as base-256 number.
+	 *
+	 * @return Returns the size in bytes.
+	 * @throws IOException Signals an invalid size field.
+	 */
+	private long headerSize() throws IOException {
+		long size = 0;
+		if ((header[124] & 0x80) != 0) {
+			size = header[124] & 0x7F;
+			for (int i = 125; i < 136; i++) {
+				size = (size << 8) | (header[i] & 0xFF);
+			}
+			return size;
+		}
+		for (int i = 124; i < 136; i++) {
+			byte b = header[i];
+			if (b == 0 || b == ' ') {
+				if (size > 0)
+					break;
+				continue;
+			}
+			if (b < '0' || b > '7')
+				throw new IOException("Invalid tar entry size in " + archivePath);
+			size = (size << 3) + (b - '0');
+		}
+		return size;
+	}
+
+	/**
+	 * Reads a NUL terminated string of the current header.
+	 */
+	private String headerString(int offset, int length) {
+		int end = offset;
+		while (end < offset + length && header[end] != 0) {
+			end++;
+		}
+		return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads the content of the current entry including its padding.
+	 *
+	 * @param size The size of the content.
+	 * @return Returns the content without padding.
+	 * @throws IOException Signals that the archive could not be read.
+	 */
+	private byte[] readContent(long size) throws IOException {
+		if (size > Integer.MAX_VALUE - BLOCK_SIZE)
+			throw new IOException("The tar entry is too large to be read into memory in " + archivePath);
+
+		byte[] content = new byte[(int) size];
+		int read = 0;
+		while (read < content.length) {
+			int count = in.read(content, read, content.length - read);
+			if (count < 0)
+				throw new EOFException("Truncated tar entry in " + archivePath);
+			read += count;
+		}
+		skipFully(padding(size));
+		return content;
+	}
+
+	/**
+	 * Skips the content of the current entry including its padding.
+	 *
+	 * @param size The size of the content.
+	 * @throws IOException Signals that the archive could not be read.
+	 */
+	private void skipContent(long size) throws IOException {
+		skipFully(size + padding(size));
+	}
+
+	private long padding(long size) {
+		return (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+	}
+
+	private void skipFully(long bytes) throws IOException {
+		while (bytes > 0) {
+			long skipped = in.skip(bytes);
+			if (skipped <= 0) {
+				if (in.read() < 0)
+					throw new EOFException("Truncated tar entry in " + archivePath);
+				skipped = 1;
+			}
+			bytes -= skipped;
+		}
+	}
+
+	/**
+	 * Extracts the path from the records of a PAX extended header, which have the form "length key=value\n".
+	 *
+	 * @param content The content of the extended header.
+	 * @return Returns the path or null if the header does not contain a path.
+	 */
+	private String paxPath(byte[] content) {
+		int position = 0;
+		while (position < content.length) {
+			int space = position;
+			while (space < content.length && content[space] != ' ') {
+				space++;
+			}
+			int length;
+			try {
+				length = Integer.parseInt(new String(content, position, space - position, StandardCharsets.US_ASCII));
+			} catch (NumberFormatException e) {
+				return null;
+			}
+			if (length <= 0 || position + length > content.length)
+				return null;
+
+			String record = new String(content, space + 1, position + length - space - 2, StandardCharsets.UTF_8);
+			if (record.startsWith("path="))
+				return record.substring(5);
+			position += length;
+		}
+		return null;
+	}
+
+	private String trimNull(String name) {
+		int end = name.indexOf(0);
+		return (end < 0) ? name : name.substring(0, end);
+	}
+
+	/**
+	 * A PNML file of the archive held in memory.
+	 */
+	private class Entry implements CorpusEntry {
+
+		private final String entryName;
+		private final byte[] content;
+
+		private Entry(String entryName, byte[] content) {
+			this.entryName = entryName;
+			this.content = content;
+		}
+
+		@Override
+		public InputStream open() {
+			return new ByteArrayInputStream(content);
+		}
+
+		@Override
+		public String getName() {
+			return CorpusSources.baseName(entryName);
+		}
+
+		@Override
+		public String getPath() {
+			return archivePath + "!/" + entryName;
+		}
+	}
+
+}
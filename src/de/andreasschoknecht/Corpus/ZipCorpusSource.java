@@ -0,0 +1,103 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+package de.andreasschoknecht.Corpus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The class ZipCorpusSource provides the PNML files contained in a zip archive, including those in directories of the archive.
+ *
+ * The entries are inflated by the threads opening them, so several entries of the archive are decompressed at the same time. Nothing
+ * is extracted to disk.
+ */
+public class ZipCorpusSource implements CorpusSource {
+
+	/** The zip archive, which may be read by several threads at the same time. */
+	private final ZipFile zipFile;
+
+	/** The PNML entries of the archive. */
+	private final List<ZipEntry> entries;
+
+	/** The position of the next entry to return. */
+	private int position;
+
+	/**
+	 * Opens a zip archive.
+	 *
+	 * @param file The zip archive containing the PNML files.
+	 * @throws IOException Signals that the archive could not be opened.
+	 */
+	public ZipCorpusSource(File file) throws IOException {
+		zipFile = new ZipFile(file);
+		entries = new ArrayList<ZipEntry>();
+		Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+		while (zipEntries.hasMoreElements()) {
+			ZipEntry entry = zipEntries.nextElement();
+			if (!entry.isDirectory() && entry.getName().endsWith(".pnml"))
+				entries.add(entry);
+		}
+	}
+
+	@Override
+	public CorpusEntry nextEntry() {
+		if (position == entries.size())
+			return null;
+		return new Entry(entries.get(position++));
+	}
+
+	@Override
+	public int getAmountOfEntries() {
+		return entries.size();
+	}
+
+	/**
+	 * Closes the archive. Entries cannot be opened anymore afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		zipFile.close();
+	}
+
+	/**
+	 * A PNML file of the archive.
+	 */
+	private class Entry implements CorpusEntry {
+
+		private final ZipEntry entry;
+
+		private Entry(ZipEntry entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public InputStream open() throws IOException {
+			return zipFile.getInputStream(entry);
+		}
+
+		@Override
+		public String getName() {
+			return CorpusSources.baseName(entry.getName());
+		}
+
+		@Override
+		public String getPath() {
+			return zipFile.getName() + "!/" + entry.getName();
+		}
+	}
+
+}
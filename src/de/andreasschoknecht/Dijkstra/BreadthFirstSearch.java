@@ -0,0 +1,100 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.Dijkstra;
+
+import java.util.Arrays;
+
+import de.andreasschoknecht.PetriNet.CompiledPetriNet;
+
+/**
+ * The class BreadthFirstSearch calculates the lengths of the shortest paths from one vertex to all other vertices or from all vertices
+ * to one vertex of a compiled net. It yields the same distances as the DijkstraAlgorithm class if all arcs have a weight of 1, but
+ * needs only O(V+E) time.
+ */
+public class BreadthFirstSearch {
+
+	/** The compiled net to search. */
+	private final CompiledPetriNet net;
+
+	/**
+	 * Instantiates a new breadth-first search. Arc weights are ignored.
+	 *
+	 * @param net The compiled net to search.
+	 */
+	public BreadthFirstSearch(CompiledPetriNet net) {
+		this.net = net;
+	}
+
+	/**
+	 * Calculates the number of arcs on the shortest paths from a source vertex to all vertices.
+	 *
+	 * @param source The int ID of the source vertex.
+	 * @return Returns the distances indexed by int ID, -1 for vertices not reachable.
+	 */
+	public int[] distancesFrom(int source) {
+		int[] distances = initDistances();
+		int[] queue = new int[distances.length];
+		int head = 0, tail = 0;
+
+		distances[source] = 0;
+		queue[tail++] = source;
+		while (head < tail) {
+			int vertex = queue[head++];
+			for (int i = net.getSuccessorOffset(vertex), n = net.getSuccessorOffset(vertex + 1); i < n; i++) {
+				int neighbor = net.getSuccessor(i);
+				if (distances[neighbor] < 0) {
+					distances[neighbor] = distances[vertex] + 1;
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * Calculates the number of arcs on the shortest paths from all vertices to a target vertex.
+	 *
+	 * @param target The int ID of the target vertex.
+	 * @return Returns the distances indexed by int ID, -1 for vertices which cannot reach the target.
+	 */
+	public int[] distancesTo(int target) {
+		int[] distances = initDistances();
+		int[] queue = new int[distances.length];
+		int head = 0, tail = 0;
+
+		distances[target] = 0;
+		queue[tail++] = target;
+		while (head < tail) {
+			int vertex = queue[head++];
+			for (int i = net.getPredecessorOffset(vertex), n = net.getPredecessorOffset(vertex + 1); i < n; i++) {
+				int neighbor = net.getPredecessor(i);
+				if (distances[neighbor] < 0) {
+					distances[neighbor] = distances[vertex] + 1;
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * Creates a distance array marking all vertices as not reached.
+	 *
+	 * @return Returns an array of -1 values with one entry per vertex.
+	 */
+	private int[] initDistances() {
+		int[] distances = new int[net.getAmountOfVertices()];
+		Arrays.fill(distances, -1);
+		return distances;
+	}
+
+}
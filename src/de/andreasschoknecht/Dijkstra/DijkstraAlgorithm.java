@@ -12,133 +12,153 @@
  */
 package de.andreasschoknecht.Dijkstra;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.Arrays;
 
-import de.andreasschoknecht.PetriNet.Edge;
-import de.andreasschoknecht.PetriNet.Vertex;
+import de.andreasschoknecht.PetriNet.CompiledPetriNet;
 
 
 /**
- * The class DijkstraAlgorithm can be used to calculate the shortest path between two Vertices according to
- * Dijkstra's shortest path algorithm.
+ * The class DijkstraAlgorithm can be used to calculate the shortest paths from one vertex to all other vertices or from all vertices
+ * to one vertex of a compiled net according to Dijkstra's shortest path algorithm, which respects arc weights.
+ *
+ * The distances are measured as the number of arcs on a path with minimal total weight. Among several paths with minimal weight,
+ * the one with the fewest arcs is used.
  */
 public class DijkstraAlgorithm {
 
-	private final List<Edge> edges;
-	private Set<Vertex> settledNodes;
-	private Set<Vertex> unSettledNodes;
-	private Map<Vertex, Vertex> predecessors;
-	private Map<Vertex, Integer> distance;
-	
-	public DijkstraAlgorithm(List<Edge> edges) {
-		this.edges = edges;
-	}
-
-	public void execute(Vertex source) {
-		settledNodes = new HashSet<Vertex>();
-		unSettledNodes = new HashSet<Vertex>();
-		distance = new HashMap<Vertex, Integer>();
-		predecessors = new HashMap<Vertex, Vertex>();
-		distance.put(source, 0);
-		unSettledNodes.add(source);
-
-		while (unSettledNodes.size() > 0) {
-			Vertex node = getMinimum(unSettledNodes);
-			settledNodes.add(node);
-			unSettledNodes.remove(node);
-			findMinimalDistances(node);
-		}
+	/** The compiled net to search. */
+	private final CompiledPetriNet net;
 
+	/**
+	 * Instantiates a new Dijkstra algorithm.
+	 *
+	 * @param net The compiled net to search.
+	 */
+	public DijkstraAlgorithm(CompiledPetriNet net) {
+		this.net = net;
 	}
 
-	private void findMinimalDistances(Vertex node) {
-		List<Vertex> adjacentNodes = getNeighbors(node);
-		for (Vertex target : adjacentNodes) {
-			if (getShortestDistance(target) > getShortestDistance(node)
-					+ getDistance(node, target)) {
-				distance.put(target, getShortestDistance(node)
-						+ getDistance(node, target));
-				predecessors.put(target, node);
-				unSettledNodes.add(target);
-			}
-		}
-
+	/**
+	 * Calculates the number of arcs on the shortest paths from a source vertex to all vertices.
+	 *
+	 * @param source The int ID of the source vertex.
+	 * @return Returns the distances indexed by int ID, -1 for vertices not reachable.
+	 */
+	public int[] distancesFrom(int source) {
+		return execute(source, true);
 	}
 
-	private int getDistance(Vertex node, Vertex target) {
-		for (Edge edge : edges) {
-			if (edge.getSource().equals(node)
-					&& edge.getTarget().equals(target)) {
-				return edge.getWeight();
-			}
-		}
-		throw new RuntimeException("Should not happen");
+	/**
+	 * Calculates the number of arcs on the shortest paths from all vertices to a target vertex.
+	 *
+	 * @param target The int ID of the target vertex.
+	 * @return Returns the distances indexed by int ID, -1 for vertices which cannot reach the target.
+	 */
+	public int[] distancesTo(int target) {
+		return execute(target, false);
 	}
 
-	private List<Vertex> getNeighbors(Vertex node) {
-		List<Vertex> neighbors = new ArrayList<Vertex>();
-		for (Edge edge : edges) {
-			if (edge.getSource().equals(node)
-					&& !isSettled(edge.getTarget())) {
-				neighbors.add(edge.getTarget());
+	/**
+	 * Runs Dijkstra's algorithm along the forward or reverse adjacency of the net using an indexed binary heap.
+	 *
+	 * @param start The int ID of the start vertex.
+	 * @param forward Whether to follow the arcs in their direction.
+	 * @return Returns the number of arcs on the shortest paths, -1 for vertices not reached.
+	 */
+	private int[] execute(int start, boolean forward) {
+		int n = net.getAmountOfVertices();
+		long[] weights = new long[n];
+		int[] hops = new int[n];
+		Arrays.fill(weights, Long.MAX_VALUE);
+		Arrays.fill(hops, -1);
+
+		// heap contains the unsettled vertices, positions[v] is the position of v in heap or -1 if v is not contained
+		int[] heap = new int[n];
+		int[] positions = new int[n];
+		Arrays.fill(positions, -1);
+		int size = 0;
+
+		weights[start] = 0;
+		hops[start] = 0;
+		heap[size] = start;
+		positions[start] = size++;
+
+		while (size > 0) {
+			int node = heap[0];
+			positions[node] = -1;
+			size--;
+			if (size > 0) {
+				heap[0] = heap[size];
+				positions[heap[0]] = 0;
+				siftDown(heap, positions, size, 0, weights, hops);
 			}
-		}
-		return neighbors;
-	}
 
-	private Vertex getMinimum(Set<Vertex> vertexes) {
-		Vertex minimum = null;
-		for (Vertex vertex : vertexes) {
-			if (minimum == null) {
-				minimum = vertex;
-			} else {
-				if (getShortestDistance(vertex) < getShortestDistance(minimum)) {
-					minimum = vertex;
+			int begin = forward ? net.getSuccessorOffset(node) : net.getPredecessorOffset(node);
+			int end = forward ? net.getSuccessorOffset(node + 1) : net.getPredecessorOffset(node + 1);
+			for (int i = begin; i < end; i++) {
+				int target = forward ? net.getSuccessor(i) : net.getPredecessor(i);
+				long weight = weights[node] + (forward ? net.getSuccessorWeight(i) : net.getPredecessorWeight(i));
+				int hop = hops[node] + 1;
+				if (weight < weights[target] || (weight == weights[target] && hop < hops[target])) {
+					boolean unreached = weights[target] == Long.MAX_VALUE;
+					weights[target] = weight;
+					hops[target] = hop;
+					if (unreached) {
+						heap[size] = target;
+						positions[target] = size++;
+					}
+					if (positions[target] >= 0)
+						siftUp(heap, positions, positions[target], weights, hops);
 				}
 			}
 		}
-		return minimum;
+
+		return hops;
 	}
 
-	private boolean isSettled(Vertex vertex) {
-		return settledNodes.contains(vertex);
+	/**
+	 * Compares two vertices by their weight and afterwards by their number of arcs.
+	 */
+	private static boolean less(int a, int b, long[] weights, int[] hops) {
+		return weights[a] < weights[b] || (weights[a] == weights[b] && hops[a] < hops[b]);
 	}
 
-	private int getShortestDistance(Vertex destination) {
-		Integer d = distance.get(destination);
-		if (d == null) {
-			return Integer.MAX_VALUE;
-		} else {
-			return d;
+	/**
+	 * Moves a heap entry towards the root until the heap property holds.
+	 */
+	private static void siftUp(int[] heap, int[] positions, int position, long[] weights, int[] hops) {
+		int vertex = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (!less(vertex, heap[parent], weights, hops))
+				break;
+			heap[position] = heap[parent];
+			positions[heap[position]] = position;
+			position = parent;
 		}
+		heap[position] = vertex;
+		positions[vertex] = position;
 	}
 
-	/*
-	 * This method returns the path from the source to the selected target and
-	 * NULL if no path exists
+	/**
+	 * Moves a heap entry towards the leaves until the heap property holds.
 	 */
-	public LinkedList<Vertex> getPath(Vertex target) {
-		LinkedList<Vertex> path = new LinkedList<Vertex>();
-		Vertex step = target;
-		// Check if a path exists
-		if (predecessors.get(step) == null) {
-			return null;
-		}
-		path.add(step);
-		while (predecessors.get(step) != null) {
-			step = predecessors.get(step);
-			path.add(step);
+	private static void siftDown(int[] heap, int[] positions, int size, int position, long[] weights, int[] hops) {
+		int vertex = heap[position];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && less(heap[child + 1], heap[child], weights, hops))
+				child++;
+			if (!less(heap[child], vertex, weights, hops))
+				break;
+			heap[position] = heap[child];
+			positions[heap[position]] = position;
+			position = child;
 		}
-		// Put it into the correct order
-		Collections.reverse(path);
-		return path;
+		heap[position] = vertex;
+		positions[vertex] = position;
 	}
 
 }
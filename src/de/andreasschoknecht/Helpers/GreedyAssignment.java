@@ -0,0 +1,185 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+package de.andreasschoknecht.Helpers;
+
+/**
+ * The class GreedyAssignment greedily assigns the words of two transition labels to each other based on a matrix of word distances or
+ * similarities. Each row and each column represents a word of a transition label. In every step, the best remaining entry is chosen
+ * and its row and column are removed, until only one row or column is left.
+ *
+ * The matrix is not copied. Removed rows and columns are skipped using lists of the remaining row and column indices, which are kept
+ * per thread and reused, so that no memory is allocated per call once the lists are large enough.
+ */
+public class GreedyAssignment {
+
+	/** The reusable lists of remaining rows and columns and the chosen entries of the current thread. */
+	private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+
+	private GreedyAssignment() {
+	}
+
+	/**
+	 * Computes the greedy minimum distance between words. In every step, the first entry in row-major order having a smaller
+	 * distance than all other remaining entries is chosen, and only distances smaller than 1 are considered. If only one row or
+	 * column is left, its minimum distance is added together with a distance of 1 for each word which has not been assigned.
+	 *
+	 * @param distances The distances between the words, with at least one row and one column.
+	 * @return Returns the total distance of the assignment.
+	 */
+	public static float minimumDistance(float[][] distances) {
+		int rows = checkRows(distances);
+		int columns = distances[0].length;
+		Scratch scratch = SCRATCH.get().reset(rows, columns);
+		int[] remainingRows = scratch.rows, remainingColumns = scratch.columns;
+		float[] chosen = scratch.chosen;
+		int steps = 0;
+
+		while (rows > 1 && columns > 1) {
+			float minimum = 1;
+			int row = 0, column = 0;
+			for (int i = 0; i < rows; i++) {
+				float[] values = distances[remainingRows[i]];
+				for (int j = 0; j < columns; j++) {
+					if (values[remainingColumns[j]] < minimum) {
+						minimum = values[remainingColumns[j]];
+						row = i;
+						column = j;
+					}
+				}
+			}
+			chosen[steps++] = minimum;
+			remove(remainingRows, rows--, row);
+			remove(remainingColumns, columns--, column);
+		}
+
+		float minimum = 1;
+		for (int i = 0; i < rows; i++) {
+			float[] values = distances[remainingRows[i]];
+			for (int j = 0; j < columns; j++) {
+				if (values[remainingColumns[j]] < minimum)
+					minimum = values[remainingColumns[j]];
+			}
+		}
+		// -1 as the number of remaining columns or rows might be greater than 1 and only one of them is eliminated
+		float totalDistance = (rows == 1) ? minimum + columns - 1 : minimum + rows - 1;
+
+		return sumFromLast(chosen, steps, totalDistance);
+	}
+
+	/**
+	 * Computes the greedy maximum similarity between words. In every step, the first entry in row-major order having a greater
+	 * similarity than all other remaining entries is chosen, and only similarities greater than 0 are considered. If only one row or
+	 * column is left, its maximum similarity is added.
+	 *
+	 * @param similarities The similarities between the words, with at least one row and one column.
+	 * @return Returns the total similarity of the assignment.
+	 */
+	public static float maximumSimilarity(float[][] similarities) {
+		int rows = checkRows(similarities);
+		int columns = similarities[0].length;
+		Scratch scratch = SCRATCH.get().reset(rows, columns);
+		int[] remainingRows = scratch.rows, remainingColumns = scratch.columns;
+		float[] chosen = scratch.chosen;
+		int steps = 0;
+
+		while (rows > 1 && columns > 1) {
+			float maximum = 0;
+			int row = 0, column = 0;
+			for (int i = 0; i < rows; i++) {
+				float[] values = similarities[remainingRows[i]];
+				for (int j = 0; j < columns; j++) {
+					if (values[remainingColumns[j]] > maximum) {
+						maximum = values[remainingColumns[j]];
+						row = i;
+						column = j;
+					}
+				}
+			}
+			chosen[steps++] = maximum;
+			remove(remainingRows, rows--, row);
+			remove(remainingColumns, columns--, column);
+		}
+
+		float maximum = 0;
+		for (int i = 0; i < rows; i++) {
+			float[] values = similarities[remainingRows[i]];
+			for (int j = 0; j < columns; j++) {
+				if (values[remainingColumns[j]] > maximum)
+					maximum = values[remainingColumns[j]];
+			}
+		}
+
+		return sumFromLast(chosen, steps, maximum);
+	}
+
+	private static int checkRows(float[][] matrix) {
+		if (matrix.length == 0 || matrix[0].length == 0)
+			throw new IllegalArgumentException("The matrix must have at least one row and one column.");
+		return matrix.length;
+	}
+
+	/**
+	 * Removes an entry from a list while keeping the order of the other entries.
+	 *
+	 * @param list The list.
+	 * @param size The size of the list before the removal.
+	 * @param position The position of the entry to remove.
+	 */
+	private static void remove(int[] list, int size, int position) {
+		System.arraycopy(list, position + 1, list, position, size - position - 1);
+	}
+
+	/**
+	 * Adds the chosen entries to the value of the last step, starting with the entry chosen last. Float additions are not associative,
+	 * so this order is kept to obtain exactly the results of the recursive formulation total = chosen + rest.
+	 */
+	private static float sumFromLast(float[] chosen, int steps, float total) {
+		for (int k = steps - 1; k >= 0; k--) {
+			total = chosen[k] + total;
+		}
+		return total;
+	}
+
+	/**
+	 * The lists used by one thread.
+	 */
+	private static class Scratch {
+
+		private int[] rows = new int[16], columns = new int[16];
+		private float[] chosen = new float[16];
+
+		/**
+		 * Fills the lists of remaining rows and columns with all indices and grows the lists if necessary.
+		 */
+		private Scratch reset(int amountOfRows, int amountOfColumns) {
+			if (rows.length < amountOfRows)
+				rows = new int[Math.max(amountOfRows, 2 * rows.length)];
+			if (columns.length < amountOfColumns)
+				columns = new int[Math.max(amountOfColumns, 2 * columns.length)];
+			if (chosen.length < Math.min(amountOfRows, amountOfColumns))
+				chosen = new float[Math.max(Math.min(amountOfRows, amountOfColumns), 2 * chosen.length)];
+
+			for (int i = 0; i < amountOfRows; i++) {
+				rows[i] = i;
+			}
+			for (int j = 0; j < amountOfColumns; j++) {
+				columns[j] = j;
+			}
+			return this;
+		}
+	}
+
+}
@@ -0,0 +1,153 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.Helpers;
+
+import java.util.ArrayList;
+
+import de.andreasschoknecht.PetriNet.Transition;
+import semilar.data.Word;
+
+/**
+ * The class LabelDistanceCalculator calculates the syntactic similarity of two transition labels from the Levenshtein distances of
+ * their words, as used by the syntactic matchers of the Triple-S and Triple-S2 approaches. The distances between words can be looked
+ * up in a LevenshteinCache, and the comparison of words can be cut off if a pair of labels cannot reach a minimum similarity.
+ *
+ * An object does not keep any state between calls except for its thread-safe cache and can be shared by threads.
+ */
+public class LabelDistanceCalculator {
+
+	/** The calculator for Levenshtein distances, which does not keep any state between calls and can be shared by threads. */
+	private final LevenshteinDistanceCalculator levCalculator = new LevenshteinDistanceCalculator();
+
+	/** The tolerance added to the maximum total word distance derived from a minimum similarity. */
+	private static final float BOUND_TOLERANCE = 1e-3f;
+
+	/** The cache for the distances between words, which can be shared by threads. No cache is used if it is null. */
+	private final LevenshteinCache cache;
+
+	/**
+	 * Instantiates a new label distance calculator.
+	 *
+	 * @param cache the cache for the distances between words or null for computing all distances
+	 */
+	public LabelDistanceCalculator(LevenshteinCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Calculates the syntactic similarity between two transition labels if it is at least minSimilarity. Word pairs whose distance
+	 * alone would lower the similarity below minSimilarity are not compared completely. If the similarity is below minSimilarity,
+	 * a value which is also below minSimilarity but may be smaller than the exact similarity is returned.
+	 *
+	 * @param transition1 The first transition.
+	 * @param transition2 The second transition.
+	 * @param minSimilarity The minimum syntactic similarity of interest, negative infinity for calculating the exact similarity.
+	 * @return Returns 1 minus the minimum total distance of the words divided by the number of words of the longer label.
+	 */
+	public float computeSimilarity(Transition transition1, Transition transition2, float minSimilarity) {
+		int maxNumberWords = Math.max(transition1.getPreProcLabel().size(), transition2.getPreProcLabel().size());
+		// The greedy assignment yields the exact total distance if it is at most maxDistance, as all word distances it adds are at
+		// most maxDistance then. A small tolerance keeps rounding errors from cutting off similarities equal to minSimilarity.
+		float maxDistance = (1 - minSimilarity) * maxNumberWords + BOUND_TOLERANCE;
+
+		char[][] words1 = lowerCaseWords(transition1);
+		char[][] words2 = lowerCaseWords(transition2);
+		int[] ids1 = wordIds(transition1, words1);
+		int[] ids2 = wordIds(transition2, words2);
+
+		// Array for the Levenshtein distance results.
+		float[][] distances = new float[words1.length][words2.length];
+
+		for (int i = 0; i < words1.length; i++) {
+			for (int j = 0; j < words2.length; j++) {
+				distances[i][j] = computeDistance(words1[i], ids1, i, words2[j], ids2, j, maxDistance);
+			}
+		}
+
+		float totalDistance = levCalculator.calculateMinDistance(distances);
+		return 1 - totalDistance / maxNumberWords;
+	}
+
+	/**
+	 * Computes the distance between two words or looks it up in the cache. Only exact distances are added to the cache. A cached
+	 * distance is returned even if it exceeds maxDistance, which does not change the result of the greedy assignment.
+	 *
+	 * @param word1 The first word in lower case.
+	 * @param ids1 The token IDs of the words of the first label or null if no cache is used.
+	 * @param i The index of the first word.
+	 * @param word2 The second word in lower case.
+	 * @param ids2 The token IDs of the words of the second label or null if no cache is used.
+	 * @param j The index of the second word.
+	 * @param maxDistance The maximum distance of interest.
+	 * @return Returns the distance if it is at most maxDistance, a larger distance otherwise.
+	 */
+	private float computeDistance(char[] word1, int[] ids1, int i, char[] word2, int[] ids2, int j, float maxDistance) {
+		if (cache == null)
+			return levCalculator.computeLevenshteinDistance(word1, word2, maxDistance);
+
+		float distance = cache.get(ids1[i], ids2[j]);
+		if (Float.isNaN(distance)) {
+			distance = levCalculator.computeLevenshteinDistance(word1, word2, maxDistance);
+			// A distance of 1 may stand for any distance above maxDistance.
+			if (distance < 1 || !(maxDistance < 1))
+				cache.put(ids1[i], ids2[j], distance);
+		}
+		return distance;
+	}
+
+	/**
+	 * Returns the raw forms of the words of the preprocessed label of a transition in lower case. They are only converted if the
+	 * words of the transition have not been interned.
+	 *
+	 * @param transition The transition.
+	 * @return Returns the characters of the words in lower case.
+	 */
+	private char[][] lowerCaseWords(Transition transition) {
+		if (transition.getLowerCaseWords() != null)
+			return transition.getLowerCaseWords();
+
+		ArrayList<Word> words = transition.getPreProcLabel();
+		char[][] result = new char[words.size()][];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = words.get(i).getRawForm().toLowerCase().toCharArray();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the IDs of the words of a transition in the dictionary of the cache. They are only interned if the words of the
+	 * transition have been interned into another dictionary or not at all.
+	 *
+	 * @param transition The transition.
+	 * @param words The characters of the words in lower case.
+	 * @return Returns the token IDs of the words or null if no cache is used.
+	 */
+	private int[] wordIds(Transition transition, char[][] words) {
+		if (cache == null)
+			return null;
+		if (transition.getWordDictionary() == cache.getDictionary())
+			return transition.getWordIds();
+
+		int[] ids = new int[words.length];
+		for (int i = 0; i < words.length; i++) {
+			ids[i] = cache.getDictionary().intern(new String(words[i]));
+		}
+		return ids;
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public LevenshteinCache getCache() {
+		return cache;
+	}
+	/* ------------------------- */
+}
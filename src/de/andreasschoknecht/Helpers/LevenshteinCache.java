@@ -0,0 +1,162 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.Helpers;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class LevenshteinCache remembers the Levenshtein distances of pairs of tokens, such that tokens compared repeatedly within a
+ * corpus are compared only once. The tokens are identified by their ID in a TokenDictionary. The distance is symmetric, so both
+ * orders of a pair share one entry.
+ *
+ * The cache has a fixed number of slots and each pair of tokens can only be stored in one slot, which is determined by hashing the
+ * pair. A new pair replaces the pair stored in its slot. Entries are immutable and slots are updated without locking, so a cache can
+ * be shared by all matcher threads of a run.
+ */
+public class LevenshteinCache {
+
+	/** The largest number of slots. */
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	/** The dictionary assigning the token IDs used as keys. */
+	private final TokenDictionary dictionary;
+
+	/** The slots of the cache, null for empty slots. */
+	private final AtomicReferenceArray<Entry> entries;
+
+	/** The number of slots minus 1, used for mapping hash values to slots. */
+	private final int mask;
+
+	/** The number of lookups which found or did not find a distance. */
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+	/**
+	 * Instantiates a new Levenshtein cache.
+	 *
+	 * @param dictionary The dictionary assigning the token IDs used as keys.
+	 * @param capacity The minimum number of slots. It is rounded up to a power of 2.
+	 * @throws IllegalArgumentException if the capacity is smaller than 1 or larger than 2^30.
+	 */
+	public LevenshteinCache(TokenDictionary dictionary, int capacity) {
+		if (capacity < 1 || capacity > MAX_CAPACITY)
+			throw new IllegalArgumentException("The capacity must be between 1 and " + MAX_CAPACITY + ", but is " + capacity + ".");
+		this.dictionary = dictionary;
+		int slots = Integer.highestOneBit(capacity);
+		if (slots < capacity)
+			slots <<= 1;
+		entries = new AtomicReferenceArray<Entry>(slots);
+		mask = slots - 1;
+	}
+
+	/**
+	 * Looks up the distance between two tokens.
+	 *
+	 * @param id1 The ID of the first token.
+	 * @param id2 The ID of the second token.
+	 * @return Returns the cached distance or NaN if the distance is not cached.
+	 */
+	public float get(int id1, int id2) {
+		long key = key(id1, id2);
+		Entry entry = entries.get(slot(key));
+		if (entry != null && entry.key == key) {
+			hits.increment();
+			return entry.distance;
+		}
+		misses.increment();
+		return Float.NaN;
+	}
+
+	/**
+	 * Stores the distance between two tokens. Only exact distances may be stored, not distances cut off by a maximum distance.
+	 *
+	 * @param id1 The ID of the first token.
+	 * @param id2 The ID of the second token.
+	 * @param distance The Levenshtein distance between the tokens.
+	 */
+	public void put(int id1, int id2, float distance) {
+		long key = key(id1, id2);
+		entries.lazySet(slot(key), new Entry(key, distance));
+	}
+
+	/**
+	 * Removes all cached distances and resets the hit and miss counters.
+	 */
+	public void clear() {
+		for (int i = 0, n = entries.length(); i < n; i++) {
+			entries.set(i, null);
+		}
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * Combines the IDs of two tokens to a key which does not depend on their order.
+	 */
+	private static long key(int id1, int id2) {
+		int low = Math.min(id1, id2), high = Math.max(id1, id2);
+		return ((long) low << 32) | (high & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Maps a key to a slot by multiplicative hashing, which spreads the consecutive IDs of a dictionary over all slots.
+	 */
+	private int slot(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+
+	/**
+	 * Returns the share of lookups which found a distance.
+	 *
+	 * @return Returns the hit rate between 0 and 1, or 0 if there has not been any lookup.
+	 */
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public TokenDictionary getDictionary() {
+		return dictionary;
+	}
+
+	public int getCapacity() {
+		return entries.length();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+	/* ------------------------- */
+
+	/**
+	 * A pair of tokens together with their distance.
+	 */
+	private static final class Entry {
+
+		private final long key;
+
+		private final float distance;
+
+		private Entry(long key, float distance) {
+			this.key = key;
+			this.distance = distance;
+		}
+	}
+
+}
@@ -11,12 +11,32 @@
 
 package de.andreasschoknecht.Helpers;
 
+import java.nio.CharBuffer;
+
 /**
  * The class LevenshteinDistanceCalculator can be used to calculate the Levenshtein string edit distance between two words. It is used for
  * calculating the syntactic similarity value in the Triple-S algorithms.
+ * 
+ * If the shorter word has at most 64 characters, which holds for nearly all words of activity labels, the distance is computed with 
+ * the bit-parallel algorithm of Myers in the formulation of Hyyro, which processes a whole column of the dynamic programming table 
+ * with a few operations on a long value. Longer words are compared with the dynamic programming algorithm using two table rows.
+ * 
+ * If only small distances are of interest, a maximum distance can be given. The computation then stops as soon as the distance is
+ * known to exceed the maximum, e.g. because of the length difference of the words or the values computed so far.
  */
 public class LevenshteinDistanceCalculator {
 	
+	/** The number of characters whose match masks are looked up in a table. Masks of other characters are computed on demand. */
+	private static final int TABLE_SIZE = 256;
+	
+	/** The match masks of the current pattern per character, reset to 0 after each computation. */
+	private static final ThreadLocal<long[]> MATCH_MASKS = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[TABLE_SIZE];
+		}
+	};
+	
 	/**
 	 * Computes the Levenshtein distance between two words.
 	 * 
@@ -31,23 +51,304 @@ public class LevenshteinDistanceCalculator {
 		else
 			maxStrLength = word2.length();
 
-		int[][] distance = new int[word1.length() + 1][word2.length() + 1];
-
-		for (int i = 0; i <= word1.length(); i++)
-			distance[i][0] = i;
-		for (int j = 1; j <= word2.length(); j++)
-			distance[0][j] = j;
-
-		for (int i = 1; i <= word1.length(); i++)
-			for (int j = 1; j <= word2.length(); j++)
-				distance[i][j] = minimum(
-						distance[i - 1][j] + 1,
-						distance[i][j - 1] + 1,
-						distance[i - 1][j - 1]
+		return ((float) computeEditDistance(word1, word2))/maxStrLength;
+	}
+	
+	/**
+	 * Computes the Levenshtein distance between two words if it does not exceed a maximum distance.
+	 * 
+	 * @param word1 String one to be compared.
+	 * @param word2 String two to be compared.
+	 * @param maxDistance The maximum distance of interest.
+	 * @return Returns the distance (between and including 0 and 1) if it is at most maxDistance, 1 otherwise.
+	 */
+	public float computeLevenshteinDistance(CharSequence word1, CharSequence word2, float maxDistance) {
+		if (!(maxDistance < 1))
+			return computeLevenshteinDistance(word1, word2);
+		
+		float maxStrLength;
+		if (word1.length() >= word2.length())
+			maxStrLength = word1.length();
+		else
+			maxStrLength = word2.length();
+		
+		// One edit more than the maximum distance allows, such that rounding cannot cut off distances of interest.
+		int maxEdits = (int) Math.floor(maxDistance * maxStrLength) + 1;
+		int editDistance = computeEditDistance(word1, word2, maxEdits);
+		if (editDistance > maxEdits)
+			return 1.0f;
+		
+		float distance = ((float) editDistance)/maxStrLength;
+		return (distance > maxDistance) ? 1.0f : distance;
+	}
+	
+	/**
+	 * Computes the number of insertions, deletions and substitutions of characters needed to transform one word into another.
+	 * 
+	 * @param word1 String one to be compared.
+	 * @param word2 String two to be compared.
+	 * @return Returns the edit distance.
+	 */
+	public int computeEditDistance(CharSequence word1, CharSequence word2) {
+		return computeEditDistance(word1, word2, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Computes the number of insertions, deletions and substitutions of characters needed to transform one word into another if it 
+	 * does not exceed a maximum number of edits.
+	 * 
+	 * @param word1 String one to be compared.
+	 * @param word2 String two to be compared.
+	 * @param maxEdits The maximum number of edits of interest.
+	 * @return Returns the edit distance if it is at most maxEdits, maxEdits + 1 otherwise.
+	 */
+	public int computeEditDistance(CharSequence word1, CharSequence word2, int maxEdits) {
+		// Use the shorter word as pattern, as its length is limited by the number of bits of a long value.
+		CharSequence pattern = (word1.length() <= word2.length()) ? word1 : word2;
+		CharSequence text = (pattern == word1) ? word2 : word1;
+		
+		// At least one edit is needed per character the words differ in length.
+		if (text.length() - pattern.length() > maxEdits)
+			return maxEdits + 1;
+		if (pattern.length() == 0)
+			return text.length();
+		if (pattern.length() <= 64)
+			return computeBitParallelDistance(pattern, text, maxEdits);
+		return computeDynamicProgrammingDistance(pattern, text, maxEdits);
+	}
+	
+	/**
+	 * Computes the Levenshtein distance between two words given as character arrays, which avoids creating strings for words
+	 * that are compared repeatedly.
+	 * 
+	 * @param word1 Word one to be compared.
+	 * @param word2 Word two to be compared.
+	 * @return Returns the distance (between and including 0 and 1).
+	 */
+	public float computeLevenshteinDistance(char[] word1, char[] word2) {
+		float maxStrLength = Math.max(word1.length, word2.length);
+		return ((float) computeEditDistance(word1, word2, Integer.MAX_VALUE))/maxStrLength;
+	}
+	
+	/**
+	 * Computes the Levenshtein distance between two words given as character arrays if it does not exceed a maximum distance.
+	 * 
+	 * @param word1 Word one to be compared.
+	 * @param word2 Word two to be compared.
+	 * @param maxDistance The maximum distance of interest.
+	 * @return Returns the distance (between and including 0 and 1) if it is at most maxDistance, 1 otherwise.
+	 */
+	public float computeLevenshteinDistance(char[] word1, char[] word2, float maxDistance) {
+		if (!(maxDistance < 1))
+			return computeLevenshteinDistance(word1, word2);
+		
+		float maxStrLength = Math.max(word1.length, word2.length);
+		int maxEdits = (int) Math.floor(maxDistance * maxStrLength) + 1;
+		int editDistance = computeEditDistance(word1, word2, maxEdits);
+		if (editDistance > maxEdits)
+			return 1.0f;
+		
+		float distance = ((float) editDistance)/maxStrLength;
+		return (distance > maxDistance) ? 1.0f : distance;
+	}
+	
+	/**
+	 * Computes the edit distance between two words given as character arrays if it does not exceed a maximum number of edits.
+	 * 
+	 * @param word1 Word one to be compared.
+	 * @param word2 Word two to be compared.
+	 * @param maxEdits The maximum number of edits of interest.
+	 * @return Returns the edit distance if it is at most maxEdits, maxEdits + 1 otherwise.
+	 */
+	public int computeEditDistance(char[] word1, char[] word2, int maxEdits) {
+		char[] pattern = (word1.length <= word2.length) ? word1 : word2;
+		char[] text = (pattern == word1) ? word2 : word1;
+		
+		if (text.length - pattern.length > maxEdits)
+			return maxEdits + 1;
+		if (pattern.length == 0)
+			return text.length;
+		if (pattern.length <= 64)
+			return computeBitParallelDistance(pattern, text, maxEdits);
+		// Words this long are rare, so the dynamic programming algorithm is only implemented for character sequences.
+		return computeDynamicProgrammingDistance(CharBuffer.wrap(pattern), CharBuffer.wrap(text), maxEdits);
+	}
+	
+	/**
+	 * Computes the edit distance with the bit-parallel algorithm. Bit i of the vertical delta vectors refers to row i+1 of the dynamic
+	 * programming table, whose rows represent the characters of the pattern.
+	 * 
+	 * @param pattern The word with 1 to 64 characters.
+	 * @param text The other word.
+	 * @param maxEdits The maximum number of edits of interest.
+	 * @return Returns the edit distance if it is at most maxEdits, maxEdits + 1 otherwise.
+	 */
+	private int computeBitParallelDistance(CharSequence pattern, CharSequence text, int maxEdits) {
+		int m = pattern.length();
+		long[] masks = MATCH_MASKS.get();
+		for (int i = 0; i < m; i++) {
+			char c = pattern.charAt(i);
+			if (c < TABLE_SIZE)
+				masks[c] |= 1L << i;
+		}
+		
+		long lastRow = 1L << (m - 1);
+		long positiveVertical = -1L, negativeVertical = 0L;
+		int score = m;
+		
+		for (int j = 0, n = text.length(); j < n; j++) {
+			char c = text.charAt(j);
+			long match = (c < TABLE_SIZE) ? masks[c] : computeMatchMask(pattern, c);
+			
+			long x = match | negativeVertical;
+			long d0 = (((match & positiveVertical) + positiveVertical) ^ positiveVertical) | x;
+			long positiveHorizontal = negativeVertical | ~(d0 | positiveVertical);
+			long negativeHorizontal = positiveVertical & d0;
+			
+			if ((positiveHorizontal & lastRow) != 0)
+				score++;
+			else if ((negativeHorizontal & lastRow) != 0)
+				score--;
+			
+			// Row 0 of the table increases by one in every column.
+			positiveHorizontal = (positiveHorizontal << 1) | 1L;
+			negativeHorizontal = negativeHorizontal << 1;
+			positiveVertical = negativeHorizontal | ~(x | positiveHorizontal);
+			negativeVertical = positiveHorizontal & x;
+			
+			// The distance decreases by at most one per remaining character of the text.
+			if (score - (n - j - 1) > maxEdits) {
+				score = maxEdits + 1;
+				break;
+			}
+		}
+		
+		for (int i = 0; i < m; i++) {
+			char c = pattern.charAt(i);
+			if (c < TABLE_SIZE)
+				masks[c] = 0L;
+		}
+		return score;
+	}
+	
+	/**
+	 * Computes the edit distance with the bit-parallel algorithm like computeBitParallelDistance(CharSequence, CharSequence, int), 
+	 * but reads the characters directly from arrays.
+	 * 
+	 * @param pattern The word with 1 to 64 characters.
+	 * @param text The other word.
+	 * @param maxEdits The maximum number of edits of interest.
+	 * @return Returns the edit distance if it is at most maxEdits, maxEdits + 1 otherwise.
+	 */
+	private int computeBitParallelDistance(char[] pattern, char[] text, int maxEdits) {
+		int m = pattern.length;
+		long[] masks = MATCH_MASKS.get();
+		for (int i = 0; i < m; i++) {
+			char c = pattern[i];
+			if (c < TABLE_SIZE)
+				masks[c] |= 1L << i;
+		}
+		
+		long lastRow = 1L << (m - 1);
+		long positiveVertical = -1L, negativeVertical = 0L;
+		int score = m;
+		
+		for (int j = 0, n = text.length; j < n; j++) {
+			char c = text[j];
+			long match = (c < TABLE_SIZE) ? masks[c] : computeMatchMask(CharBuffer.wrap(pattern), c);
+			
+			long x = match | negativeVertical;
+			long d0 = (((match & positiveVertical) + positiveVertical) ^ positiveVertical) | x;
+			long positiveHorizontal = negativeVertical | ~(d0 | positiveVertical);
+			long negativeHorizontal = positiveVertical & d0;
+			
+			if ((positiveHorizontal & lastRow) != 0)
+				score++;
+			else if ((negativeHorizontal & lastRow) != 0)
+				score--;
+			
+			positiveHorizontal = (positiveHorizontal << 1) | 1L;
+			negativeHorizontal = negativeHorizontal << 1;
+			positiveVertical = negativeHorizontal | ~(x | positiveHorizontal);
+			negativeVertical = positiveHorizontal & x;
+			
+			if (score - (n - j - 1) > maxEdits) {
+				score = maxEdits + 1;
+				break;
+			}
+		}
+		
+		for (int i = 0; i < m; i++) {
+			char c = pattern[i];
+			if (c < TABLE_SIZE)
+				masks[c] = 0L;
+		}
+		return score;
+	}
+	
+	/**
+	 * Computes the match mask of a character which is not contained in the lookup table.
+	 * 
+	 * @param pattern The pattern.
+	 * @param c The character.
+	 * @return Returns a mask having bit i set if the pattern contains the character at position i.
+	 */
+	private long computeMatchMask(CharSequence pattern, char c) {
+		long mask = 0L;
+		for (int i = 0, m = pattern.length(); i < m; i++) {
+			if (pattern.charAt(i) == c)
+				mask |= 1L << i;
+		}
+		return mask;
+	}
+	
+	/**
+	 * Computes the edit distance with the dynamic programming algorithm, keeping only two rows of the table. Only the diagonal band of
+	 * cells which can have a value of at most maxEdits is computed, and the computation stops as soon as all values of a row exceed
+	 * maxEdits.
+	 * 
+	 * @param word1 String one to be compared.
+	 * @param word2 String two to be compared.
+	 * @param maxEdits The maximum number of edits of interest.
+	 * @return Returns the edit distance if it is at most maxEdits, maxEdits + 1 otherwise.
+	 */
+	private int computeDynamicProgrammingDistance(CharSequence word1, CharSequence word2, int maxEdits) {
+		int n = word2.length();
+		int band = Math.min(maxEdits, Math.max(word1.length(), n));
+		// Cells outside of the band are known to exceed the band width.
+		int outside = band + 1;
+		int[] previous = new int[n + 1];
+		int[] current = new int[n + 1];
+		
+		for (int j = 0; j <= n; j++)
+			previous[j] = (j <= band) ? j : outside;
+		
+		for (int i = 1; i <= word1.length(); i++) {
+			int low = Math.max(1, i - band), high = Math.min(n, i + band);
+			current[low - 1] = (low == 1 && i <= band) ? i : outside;
+			int rowMinimum = current[low - 1];
+			
+			for (int j = low; j <= high; j++) {
+				current[j] = Math.min(outside, minimum(
+						previous[j] + 1,
+						current[j - 1] + 1,
+						previous[j - 1]
 								+ ((word1.charAt(i - 1) == word2.charAt(j - 1)) ? 0
-										: 1));
-
-		return ((float) distance[word1.length()][word2.length()])/maxStrLength;
+										: 1)));
+				rowMinimum = Math.min(rowMinimum, current[j]);
+			}
+			if (high < n)
+				current[high + 1] = outside;
+			
+			if (rowMinimum > maxEdits)
+				return maxEdits + 1;
+			
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		
+		return (previous[n] > maxEdits) ? maxEdits + 1 : previous[n];
 	}
 	
 	/**
@@ -71,57 +372,7 @@ public class LevenshteinDistanceCalculator {
 	 * @return Returns the minimum distance (between and including 0 and 1).
 	 */
 	public float calculateMinDistance(float[][] distances) {
-		float totalDistance = 0, minimum = 1;
-		int row = 0, column = 0;
-		
-		if (distances.length == 1) { // end case 1 of recursion
-			/* If there is only one row left: Find minimum and add remaining number of columns
-			 * (represents distances of 1 of these words compared to other transition label's words)
-			 */
-			for (int i = 0; i < distances.length; i++) {
-				for (int j = 0; j < distances[i].length; j++) {
-					if (distances[i][j] < minimum) {
-						minimum = distances[i][j];
-					}
-				}
-			}
-			// Update total distance. -1 as the number of columns might be greater than the number of rows and only one column is eliminated
-			totalDistance = minimum + distances[0].length - 1;
-			
-		} else if (distances[0].length == 1) { // end case 2 of recursion
-			/* If there is only one column left: Find minimum and add remaining number of rows 
-			 * (represents distances of 1 of these words compared to other transition label's words)
-			 */
-			for (int i = 0; i < distances.length; i++) {
-				for (int j = 0; j < distances[i].length; j++) {
-					if (distances[i][j] < minimum) {
-						minimum = distances[i][j];
-					}
-				}
-			}
-			// Update total distance. -1 as the number of rows might be greater than the number of columns and only one column is eliminated
-			totalDistance = minimum + distances.length - 1;
-			
-		}
-		else if (distances.length != 1 && distances[0].length != 1) {
-			// Find minimum in distances array.
-			for (int i = 0; i < distances.length; i++) {
-				for (int j = 0; j < distances[i].length; j++) {
-					if (distances[i][j] < minimum) {
-						minimum = distances[i][j];
-						row = i;
-						column = j;
-					}
-				}
-			}
-			// Adapt array
-			float[][] adaptedArray = ArrayAdaptor.adaptArray(distances, row, column);
-			
-			// Update total distance
-			totalDistance = minimum + calculateMinDistance(adaptedArray);
-		}
-		
-		return totalDistance;
+		return GreedyAssignment.minimumDistance(distances);
 	}
 
 }
@@ -0,0 +1,335 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * The algorithm follows M.F. Porter, "An algorithm for suffix stripping", Program 14(3), 1980, and has been adapted from the 
+ * reference implementation at https://tartarus.org/martin/PorterStemmer/.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.Helpers;
+
+/**
+ * The class PorterStemmer reduces English words to their stem according to the Porter stemming algorithm. Words are expected to be
+ * in lower case. The class does not hold any state between calls and can be used by several threads at the same time.
+ */
+public class PorterStemmer {
+
+	/**
+	 * Stems a word.
+	 *
+	 * @param word The word in lower case.
+	 * @return Returns the stem of the word.
+	 */
+	public String stem(String word) {
+		if (word.length() <= 2)
+			return word;
+
+		Buffer buffer = new Buffer(word);
+		buffer.step1ab();
+		buffer.step1c();
+		buffer.step2();
+		buffer.step3();
+		buffer.step4();
+		buffer.step5();
+		return new String(buffer.b, 0, buffer.k + 1);
+	}
+
+	/**
+	 * The word to be stemmed together with the positions used by the single steps of the algorithm. b[0..k] holds the current
+	 * word and j marks the end of the stem found by the last call of ends.
+	 */
+	private static class Buffer {
+
+		private final char[] b;
+		private int k, j;
+
+		private Buffer(String word) {
+			b = word.toCharArray();
+			k = b.length - 1;
+		}
+
+		/** Checks whether b[i] is a consonant. */
+		private boolean cons(int i) {
+			switch (b[i]) {
+			case 'a': case 'e': case 'i': case 'o': case 'u':
+				return false;
+			case 'y':
+				return (i == 0) ? true : !cons(i - 1);
+			default:
+				return true;
+			}
+		}
+
+		/** Measures the number of consonant sequences between 0 and j, i.e. m in [C](VC){m}[V]. */
+		private int m() {
+			int n = 0;
+			int i = 0;
+			while (true) {
+				if (i > j)
+					return n;
+				if (!cons(i))
+					break;
+				i++;
+			}
+			i++;
+			while (true) {
+				while (true) {
+					if (i > j)
+						return n;
+					if (cons(i))
+						break;
+					i++;
+				}
+				i++;
+				n++;
+				while (true) {
+					if (i > j)
+						return n;
+					if (!cons(i))
+						break;
+					i++;
+				}
+				i++;
+			}
+		}
+
+		/** Checks whether 0..j contains a vowel. */
+		private boolean vowelInStem() {
+			for (int i = 0; i <= j; i++) {
+				if (!cons(i))
+					return true;
+			}
+			return false;
+		}
+
+		/** Checks whether j, j-1 contain a double consonant. */
+		private boolean doublec(int j) {
+			if (j < 1)
+				return false;
+			if (b[j] != b[j - 1])
+				return false;
+			return cons(j);
+		}
+
+		/** Checks whether i-2, i-1, i has the form consonant - vowel - consonant and the second consonant is not w, x or y. */
+		private boolean cvc(int i) {
+			if (i < 2 || !cons(i) || cons(i - 1) || !cons(i - 2))
+				return false;
+			char ch = b[i];
+			if (ch == 'w' || ch == 'x' || ch == 'y')
+				return false;
+			return true;
+		}
+
+		/** Checks whether 0..k ends with the given suffix and sets j to the end of the remaining stem. */
+		private boolean ends(String s) {
+			int l = s.length();
+			int o = k - l + 1;
+			if (o < 0)
+				return false;
+			for (int i = 0; i < l; i++) {
+				if (b[o + i] != s.charAt(i))
+					return false;
+			}
+			j = k - l;
+			return true;
+		}
+
+		/** Sets j+1..k to the given characters, adjusting k. */
+		private void setTo(String s) {
+			int l = s.length();
+			int o = j + 1;
+			for (int i = 0; i < l; i++) {
+				b[o + i] = s.charAt(i);
+			}
+			k = j + l;
+		}
+
+		/** Replaces the suffix if the remaining stem has a measure greater than zero. */
+		private void r(String s) {
+			if (m() > 0)
+				setTo(s);
+		}
+
+		/** Removes plurals and -ed or -ing. */
+		private void step1ab() {
+			if (b[k] == 's') {
+				if (ends("sses"))
+					k -= 2;
+				else if (ends("ies"))
+					setTo("i");
+				else if (b[k - 1] != 's')
+					k--;
+			}
+			if (ends("eed")) {
+				if (m() > 0)
+					k--;
+			} else if ((ends("ed") || ends("ing")) && vowelInStem()) {
+				k = j;
+				if (ends("at"))
+					setTo("ate");
+				else if (ends("bl"))
+					setTo("ble");
+				else if (ends("iz"))
+					setTo("ize");
+				else if (doublec(k)) {
+					k--;
+					char ch = b[k];
+					if (ch == 'l' || ch == 's' || ch == 'z')
+						k++;
+				} else if (m() == 1 && cvc(k))
+					setTo("e");
+			}
+		}
+
+		/** Turns a terminal y to i when there is another vowel in the stem. */
+		private void step1c() {
+			if (ends("y") && vowelInStem())
+				b[k] = 'i';
+		}
+
+		/** Maps double suffixes to single ones, e.g. -ization to -ize. */
+		private void step2() {
+			if (k == 0)
+				return;
+			switch (b[k - 1]) {
+			case 'a':
+				if (ends("ational")) { r("ate"); break; }
+				if (ends("tional")) { r("tion"); break; }
+				break;
+			case 'c':
+				if (ends("enci")) { r("ence"); break; }
+				if (ends("anci")) { r("ance"); break; }
+				break;
+			case 'e':
+				if (ends("izer")) { r("ize"); break; }
+				break;
+			case 'l':
+				if (ends("bli")) { r("ble"); break; }
+				if (ends("alli")) { r("al"); break; }
+				if (ends("entli")) { r("ent"); break; }
+				if (ends("eli")) { r("e"); break; }
+				if (ends("ousli")) { r("ous"); break; }
+				break;
+			case 'o':
+				if (ends("ization")) { r("ize"); break; }
+				if (ends("ation")) { r("ate"); break; }
+				if (ends("ator")) { r("ate"); break; }
+				break;
+			case 's':
+				if (ends("alism")) { r("al"); break; }
+				if (ends("iveness")) { r("ive"); break; }
+				if (ends("fulness")) { r("ful"); break; }
+				if (ends("ousness")) { r("ous"); break; }
+				break;
+			case 't':
+				if (ends("aliti")) { r("al"); break; }
+				if (ends("iviti")) { r("ive"); break; }
+				if (ends("biliti")) { r("ble"); break; }
+				break;
+			case 'g':
+				if (ends("logi")) { r("log"); break; }
+				break;
+			default:
+				break;
+			}
+		}
+
+		/** Deals with -ic-, -full, -ness etc. */
+		private void step3() {
+			switch (b[k]) {
+			case 'e':
+				if (ends("icate")) { r("ic"); break; }
+				if (ends("ative")) { r(""); break; }
+				if (ends("alize")) { r("al"); break; }
+				break;
+			case 'i':
+				if (ends("iciti")) { r("ic"); break; }
+				break;
+			case 'l':
+				if (ends("ical")) { r("ic"); break; }
+				if (ends("ful")) { r(""); break; }
+				break;
+			case 's':
+				if (ends("ness")) { r(""); break; }
+				break;
+			default:
+				break;
+			}
+		}
+
+		/** Removes -ant, -ence etc. in context <c>vcvc<v>. */
+		private void step4() {
+			if (k == 0)
+				return;
+			switch (b[k - 1]) {
+			case 'a':
+				if (ends("al")) break;
+				return;
+			case 'c':
+				if (ends("ance")) break;
+				if (ends("ence")) break;
+				return;
+			case 'e':
+				if (ends("er")) break;
+				return;
+			case 'i':
+				if (ends("ic")) break;
+				return;
+			case 'l':
+				if (ends("able")) break;
+				if (ends("ible")) break;
+				return;
+			case 'n':
+				if (ends("ant")) break;
+				if (ends("ement")) break;
+				if (ends("ment")) break;
+				if (ends("ent")) break;
+				return;
+			case 'o':
+				if (ends("ion") && j >= 0 && (b[j] == 's' || b[j] == 't')) break;
+				if (ends("ou")) break;
+				return;
+			case 's':
+				if (ends("ism")) break;
+				return;
+			case 't':
+				if (ends("ate")) break;
+				if (ends("iti")) break;
+				return;
+			case 'u':
+				if (ends("ous")) break;
+				return;
+			case 'v':
+				if (ends("ive")) break;
+				return;
+			case 'z':
+				if (ends("ize")) break;
+				return;
+			default:
+				return;
+			}
+			if (m() > 1)
+				k = j;
+		}
+
+		/** Removes a final -e if m() > 1 and changes -ll to -l if m() > 1. */
+		private void step5() {
+			j = k;
+			if (b[k] == 'e') {
+				int a = m();
+				if (a > 1 || a == 1 && !cvc(k - 1))
+					k--;
+			}
+			if (b[k] == 'l' && doublec(k) && m() > 1)
+				k--;
+		}
+	}
+
+}
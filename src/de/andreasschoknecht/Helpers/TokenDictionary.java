@@ -0,0 +1,93 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.Helpers;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The class TokenDictionary assigns a dense int ID to every distinct token of a corpus, such that tokens can be compared and used as
+ * keys by their ID. The IDs are assigned in the order in which the tokens are interned, starting with 0.
+ *
+ * A dictionary can be shared by all threads of a run. Looking up a known token does not lock.
+ */
+public class TokenDictionary {
+
+	/** The initial number of tokens which can be stored without growing the token array. */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** The IDs of the interned tokens. */
+	private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+	/** The interned tokens indexed by their ID. Replaced by a larger copy when full. */
+	private volatile String[] tokens = new String[INITIAL_CAPACITY];
+
+	/** The number of interned tokens. Only changed while holding the lock of the dictionary. */
+	private int size = 0;
+
+	/**
+	 * Returns the ID of a token and assigns a new ID if the token has not been interned before.
+	 *
+	 * @param token The token to intern.
+	 * @return Returns the ID of the token.
+	 */
+	public int intern(String token) {
+		Integer id = ids.get(token);
+		if (id != null)
+			return id;
+
+		synchronized (this) {
+			id = ids.get(token);
+			if (id != null)
+				return id;
+
+			if (size == tokens.length)
+				tokens = Arrays.copyOf(tokens, 2 * size);
+			tokens[size] = token;
+			// Publishing the ID after storing the token ensures that getToken finds the token for every ID handed out.
+			ids.put(token, size);
+			return size++;
+		}
+	}
+
+	/**
+	 * Returns the ID of a token without interning it.
+	 *
+	 * @param token The token to look up.
+	 * @return Returns the ID of the token or -1 if the token has not been interned.
+	 */
+	public int getId(String token) {
+		Integer id = ids.get(token);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the token with a given ID.
+	 *
+	 * @param id An ID returned by intern or getId.
+	 * @return Returns the token.
+	 * @throws IllegalArgumentException if no token has the ID.
+	 */
+	public String getToken(int id) {
+		String[] currentTokens = tokens;
+		if (id < 0 || id >= currentTokens.length || currentTokens[id] == null)
+			throw new IllegalArgumentException("No token has the ID " + id + ".");
+		return currentTokens[id];
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public synchronized int getSize() {
+		return size;
+	}
+	/* ------------------------- */
+}
@@ -0,0 +1,317 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.MatchingManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.andreasschoknecht.Corpus.CorpusEntry;
+import de.andreasschoknecht.Corpus.CorpusSource;
+import de.andreasschoknecht.Corpus.CorpusSources;
+import de.andreasschoknecht.Corpus.SnapshotCache;
+import de.andreasschoknecht.Helpers.TokenDictionary;
+import de.andreasschoknecht.PetriNet.PNMLParser;
+import de.andreasschoknecht.PetriNet.PetriNet;
+import de.andreasschoknecht.Preprocessing.LabelPreprocessor;
+import de.andreasschoknecht.Preprocessing.StanfordLabelPreprocessor;
+
+/**
+ * The class CorpusLoader parses and preprocesses the labeled workflow nets of a corpus concurrently. The number of nets processed
+ * at the same time is bounded by the parallelism of the loader. Corpora can be read from directories and archives.
+ */
+public class CorpusLoader {
+
+	/** The number of corpus entries per worker thread which may be read ahead of parsing, bounding the memory used for archives. */
+	private static final int PENDING_ENTRIES_PER_THREAD = 4;
+
+	/** The number of worker threads parsing and preprocessing labeled workflow nets. */
+	private final int parallelism;
+
+	/** The label preprocessor shared by all labeled workflow nets of the corpus. */
+	private LabelPreprocessor labelPreprocessor;
+
+	/** An optional listener informed about the loading progress. */
+	private LoadProgressListener progressListener;
+
+	/** An optional cache of parsed and preprocessed nets. Nets whose PNML document is unchanged are restored from it. */
+	private SnapshotCache snapshotCache;
+
+	/** The dictionary into which the words of the preprocessed transition labels are interned. */
+	private TokenDictionary tokenDictionary = new TokenDictionary();
+
+	/**
+	 * Instantiates a new corpus loader using one worker thread per available processor.
+	 */
+	public CorpusLoader() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Instantiates a new corpus loader using a fixed number of worker threads.
+	 *
+	 * @param parallelism the number of worker threads
+	 */
+	public CorpusLoader(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("The parallelism must be at least 1 but was " + parallelism + ".");
+		this.parallelism = parallelism;
+		this.labelPreprocessor = StanfordLabelPreprocessor.getDefaultInstance();
+	}
+
+	/**
+	 * Loads all PNML files contained in a directory, a zip archive or a gzip compressed tar archive.
+	 *
+	 * @param corpus The directory or archive containing the PNML files.
+	 * @return Returns the parsed and preprocessed labeled workflow nets in the order of the corpus.
+	 * @throws IOException Signals that the corpus could not be read.
+	 * @see CorpusSources#open(File)
+	 */
+	public ArrayList<PetriNet> load(File corpus) throws IOException {
+		CorpusSource source = CorpusSources.open(corpus);
+		try {
+			return load(source);
+		} finally {
+			source.close();
+		}
+	}
+
+	/**
+	 * Loads all PNML documents of a corpus source. The entries are read by the calling thread and parsed by the worker threads
+	 * while further entries are read. The source is not closed.
+	 *
+	 * @param source The corpus source.
+	 * @return Returns the parsed and preprocessed labeled workflow nets in the order of the corpus.
+	 * @throws IOException Signals that the corpus could not be read.
+	 */
+	public ArrayList<PetriNet> load(CorpusSource source) throws IOException {
+		final int totalNets = source.getAmountOfEntries();
+		final AtomicInteger loadedNets = new AtomicInteger();
+		final PNMLParser pnmlParser = new PNMLParser();
+		final LabelPreprocessor preprocessor = labelPreprocessor;
+		final TokenDictionary dictionary = tokenDictionary;
+		final Semaphore pendingEntries = new Semaphore(PENDING_ENTRIES_PER_THREAD * parallelism);
+		ArrayList<PetriNet> nets = new ArrayList<PetriNet>();
+
+		ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			CorpusEntry entry;
+			while ((entry = source.nextEntry()) != null) {
+				final CorpusEntry currentEntry = entry;
+				final PetriNet net = new PetriNet(entry.getPath(), entry.getName());
+				nets.add(net);
+
+				pendingEntries.acquire();
+				futures.add(pool.submit(new Callable<Void>() {
+					public Void call() throws IOException {
+						try {
+							InputStream in = currentEntry.open();
+							try {
+								loadNet(net, in, pnmlParser, preprocessor, dictionary);
+							} finally {
+								in.close();
+							}
+						} finally {
+							pendingEntries.release();
+						}
+						notifyProgress(net, loadedNets.incrementAndGet(), totalNets);
+						return null;
+					}
+				}));
+			}
+
+			awaitAll(futures);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Loading of the corpus has been interrupted.", e);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		return nets;
+	}
+
+	/**
+	 * Parses and preprocesses labeled workflow nets whose PNML file paths are already set.
+	 *
+	 * @param nets The labeled workflow nets to load.
+	 * @return Returns the given labeled workflow nets in their original order.
+	 */
+	public ArrayList<PetriNet> load(final List<PetriNet> nets) {
+		final int totalNets = nets.size();
+		final AtomicInteger loadedNets = new AtomicInteger();
+		final PNMLParser pnmlParser = new PNMLParser();
+		final LabelPreprocessor preprocessor = labelPreprocessor;
+		final TokenDictionary dictionary = tokenDictionary;
+
+		ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (final PetriNet net: nets) {
+				futures.add(pool.submit(new Callable<Void>() {
+					public Void call() throws IOException {
+						if (snapshotCache == null) {
+							pnmlParser.startParsing(net);
+							net.preprocessTransitions(preprocessor);
+							net.internWords(dictionary);
+						} else {
+							InputStream in = new FileInputStream(net.getPnmlFile());
+							try {
+								loadNet(net, in, pnmlParser, preprocessor, dictionary);
+							} finally {
+								in.close();
+							}
+						}
+						notifyProgress(net, loadedNets.incrementAndGet(), totalNets);
+						return null;
+					}
+				}));
+			}
+
+			awaitAll(futures);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Loading of the corpus has been interrupted.", e);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		return new ArrayList<PetriNet>(nets);
+	}
+
+	/**
+	 * Parses and preprocesses a labeled workflow net and interns the words of its transition labels. If a snapshot cache is set,
+	 * the net is restored from its snapshot instead if the PNML document has not changed, and a snapshot is stored otherwise.
+	 *
+	 * @param net The labeled workflow net to load.
+	 * @param in The stream providing the PNML document.
+	 * @param pnmlParser The PNML parser.
+	 * @param preprocessor The label preprocessor.
+	 * @param dictionary The token dictionary.
+	 * @throws IOException Signals that the PNML document could not be read or the snapshot could not be stored.
+	 */
+	private void loadNet(PetriNet net, InputStream in, PNMLParser pnmlParser, LabelPreprocessor preprocessor, TokenDictionary dictionary)
+			throws IOException {
+		SnapshotCache cache = snapshotCache;
+		if (cache == null) {
+			pnmlParser.startParsing(net, in);
+			net.preprocessTransitions(preprocessor);
+		} else {
+			byte[] content = readFully(in);
+			String key = cache.key(content, preprocessor);
+			if (!cache.restore(net, key)) {
+				pnmlParser.startParsing(net, ByteBuffer.wrap(content));
+				net.preprocessTransitions(preprocessor);
+				cache.store(net, key);
+			}
+		}
+		// Token IDs are only valid within a run, so they are not part of snapshots.
+		net.internWords(dictionary);
+	}
+
+	/**
+	 * Notifies the progress listener about a loaded labeled workflow net.
+	 *
+	 * @param net The loaded labeled workflow net.
+	 * @param loadedNets The number of labeled workflow nets loaded including this one.
+	 * @param totalNets The total number of labeled workflow nets or -1 if it is not known.
+	 */
+	private void notifyProgress(PetriNet net, int loadedNets, int totalNets) {
+		if (progressListener != null)
+			progressListener.netLoaded(net, loadedNets, totalNets);
+	}
+
+	/**
+	 * Reads the remaining bytes of a stream.
+	 *
+	 * @param in The stream to read.
+	 * @return Returns the bytes read.
+	 * @throws IOException Signals that the stream could not be read.
+	 */
+	private byte[] readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 14);
+		byte[] buffer = new byte[1 << 14];
+		int count;
+		while ((count = in.read(buffer)) >= 0) {
+			out.write(buffer, 0, count);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Waits until all tasks have finished.
+	 *
+	 * @param futures The futures of the tasks.
+	 * @throws InterruptedException Signals that the calling thread has been interrupted while waiting.
+	 * @throws IllegalStateException if a task failed.
+	 */
+	private void awaitAll(List<Future<?>> futures) throws InterruptedException {
+		try {
+			for (Future<?> future: futures)
+				future.get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Loading of the corpus failed.", e.getCause());
+		}
+	}
+
+	/* Getter and setter methods */
+	/* ------------------------- */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public LabelPreprocessor getLabelPreprocessor() {
+		return labelPreprocessor;
+	}
+
+	public void setLabelPreprocessor(LabelPreprocessor labelPreprocessor) {
+		this.labelPreprocessor = labelPreprocessor;
+	}
+
+	public LoadProgressListener getProgressListener() {
+		return progressListener;
+	}
+
+	public void setProgressListener(LoadProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	public TokenDictionary getTokenDictionary() {
+		return tokenDictionary;
+	}
+
+	public void setTokenDictionary(TokenDictionary tokenDictionary) {
+		this.tokenDictionary = tokenDictionary;
+	}
+
+	public SnapshotCache getSnapshotCache() {
+		return snapshotCache;
+	}
+
+	public void setSnapshotCache(SnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+	}
+	/* ------------------------- */
+}
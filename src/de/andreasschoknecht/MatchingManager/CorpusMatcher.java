@@ -0,0 +1,149 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.MatchingManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.andreasschoknecht.PetriNet.PetriNet;
+
+/**
+ * The class CorpusMatcher matches every pair of labeled workflow nets of a corpus with each other. The pairs are distributed over
+ * a pool of worker threads. All workers use the same matcher, which keeps its intermediate results local to each call, and write
+ * their results into separate slots of the result array, such that the workers never compete for shared state.
+ */
+public class CorpusMatcher {
+
+	/** The matcher shared by all worker threads. */
+	private final ProcessModelMatcher matcher;
+
+	/** The number of worker threads used if no executor is given. */
+	private final int parallelism;
+
+	/** An optional executor (e.g. a ForkJoinPool) provided by the caller. It is not shut down by the CorpusMatcher. */
+	private final ExecutorService executor;
+
+	/**
+	 * Instantiates a new corpus matcher using one worker thread per available processor.
+	 *
+	 * @param matcher the matcher used by all worker threads
+	 */
+	public CorpusMatcher(ProcessModelMatcher matcher) {
+		this(matcher, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Instantiates a new corpus matcher using a fixed number of worker threads.
+	 *
+	 * @param matcher the matcher used by all worker threads
+	 * @param parallelism the number of worker threads
+	 */
+	public CorpusMatcher(ProcessModelMatcher matcher, int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("The parallelism must be at least 1 but was " + parallelism + ".");
+		this.matcher = matcher;
+		this.parallelism = parallelism;
+		this.executor = null;
+	}
+
+	/**
+	 * Instantiates a new corpus matcher running on an executor provided by the caller.
+	 *
+	 * @param matcher the matcher used by all worker threads
+	 * @param executor the executor running the matching tasks
+	 */
+	public CorpusMatcher(ProcessModelMatcher matcher, ExecutorService executor) {
+		this.matcher = matcher;
+		this.parallelism = 0;
+		this.executor = executor;
+	}
+
+	/**
+	 * Matches every pair (i, j) with i < j of the given labeled workflow nets.
+	 *
+	 * @param nets The labeled workflow nets of the corpus.
+	 * @return Returns the match results ordered like the pairs (0, 1), (0, 2), ..., (1, 2), ...
+	 */
+	public List<MatchResult> matchAll(final List<PetriNet> nets) {
+		final int k = nets.size();
+		long amountOfPairs = (long) k * (k - 1) / 2;
+		if (amountOfPairs > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("The corpus contains too many pairs of process models: " + amountOfPairs);
+
+		final MatchResult[] results = new MatchResult[(int) amountOfPairs];
+
+		ExecutorService pool = executor != null ? executor : Executors.newFixedThreadPool(parallelism);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		try {
+			// One task per row of the pair matrix. The largest rows are submitted first to balance the load.
+			for (int i = 0; i < k - 1; i++) {
+				final int row = i;
+				futures.add(pool.submit(new Runnable() {
+					public void run() {
+						matchRow(nets, row, results);
+					}
+				}));
+			}
+
+			for (Future<?> future: futures)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Matching of the corpus has been interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Matching of the corpus failed.", e.getCause());
+		} finally {
+			if (executor == null) {
+				pool.shutdownNow();
+			} else {
+				// Stop the remaining tasks on the executor of the caller if a task failed. Finished tasks are not affected.
+				for (Future<?> future: futures)
+					future.cancel(true);
+			}
+		}
+
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Matches the net at position row with all nets following it in the corpus.
+	 *
+	 * @param nets The labeled workflow nets of the corpus.
+	 * @param row The position of the first net of each pair.
+	 * @param results The array to store the match results in.
+	 */
+	private void matchRow(List<PetriNet> nets, int row, MatchResult[] results) {
+		int k = nets.size();
+		int index = pairIndex(row, row + 1, k);
+		for (int j = row + 1; j < k; j++) {
+			results[index++] = matcher.match(nets.get(row), nets.get(j));
+		}
+	}
+
+	/**
+	 * Calculates the position of the pair (i, j) with i < j in the result array.
+	 *
+	 * @param i The position of the first net.
+	 * @param j The position of the second net.
+	 * @param k The number of nets in the corpus.
+	 * @return Returns the position of the pair.
+	 */
+	public static int pairIndex(int i, int j, int k) {
+		return (int) ((long) i * k - (long) i * (i + 1) / 2 + (j - i - 1));
+	}
+
+}
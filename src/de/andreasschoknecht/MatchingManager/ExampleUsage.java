@@ -12,18 +12,34 @@
 package de.andreasschoknecht.MatchingManager;
 
 import java.io.File;
-import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Scanner;
 
 import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
 import org.deeplearning4j.models.word2vec.Word2Vec;
-import de.andreasschoknecht.PetriNet.PNMLParser;
+import de.andreasschoknecht.Corpus.SnapshotCache;
+import de.andreasschoknecht.Helpers.LevenshteinCache;
+import de.andreasschoknecht.Helpers.TokenDictionary;
 import de.andreasschoknecht.PetriNet.PetriNet;
+import de.andreasschoknecht.Preprocessing.CachingLabelPreprocessor;
+import de.andreasschoknecht.Preprocessing.SimpleLabelPreprocessor;
+import de.andreasschoknecht.Preprocessing.StanfordLabelPreprocessor;
+import de.andreasschoknecht.TripleS.CachedWordSimilarity;
 import de.andreasschoknecht.TripleS.TripleS;
+import de.andreasschoknecht.TripleS.WNWordSimilarity;
+import de.andreasschoknecht.TripleS.WordSimilarityMetric;
 import de.andreasschoknecht.TripleS2.TripleS2;
+import de.andreasschoknecht.WordNet.WordNetIndex;
+import de.andreasschoknecht.WordVectors.CompactWordVectorExtractor;
+import de.andreasschoknecht.WordVectors.CompactWordVectors;
+import de.andreasschoknecht.WordVectors.MappedWordVectors;
+import de.andreasschoknecht.WordVectors.NormalizedWordVectors;
+import de.andreasschoknecht.WordVectors.QuantizedWordVectors;
+import de.andreasschoknecht.WordVectors.Word2VecSimilarity;
+import de.andreasschoknecht.WordVectors.WordVectorSimilarity;
 
 /**
  * Example class for conducting a process model matching task using the Triple-S algorithms in the Triple-S code library.
@@ -33,7 +49,7 @@ public class ExampleUsage {
 	/** The weights for the Triple-S matching algorithms. */
 	private static HashMap<String, Float> weights = new HashMap<String, Float>();
 	
-	/** The input path to a directory which contains PNML files. */
+	/** The input path to a directory, a zip archive or a gzip compressed tar archive which contains PNML files. */
 	private static String inputPath;
 	
 	/** The output path into which matching result files will be written. */
@@ -42,6 +58,63 @@ public class ExampleUsage {
 	/** The matching configuration used to configure a Triple-S matcher. */
 	private static MatcherConfiguration configuration;
 	
+	/** Whether transition labels are preprocessed without the Stanford tagger and parser, which speeds up loading large corpora. */
+	private static boolean simplePreprocessing = false;
+	
+	/** The file storing preprocessed transition labels between runs. No file is used if the path is null. */
+	private static String labelCacheFile = null;
+	
+	/** The directory storing snapshots of parsed and preprocessed nets between runs. No snapshots are used if the path is null. */
+	private static String snapshotCacheDir = null;
+	
+	/** The number of word pairs whose Levenshtein distance is cached. No cache is used if the size is 0. */
+	private static int levenshteinCacheSize = 1 << 20;
+	
+	/** The number of word pairs whose Wu & Palmer similarity is cached for Triple-S. */
+	private static int wordSimilarityCacheSize = 1 << 20;
+	
+	/** The file storing Wu & Palmer similarities of word pairs between runs. No file is used if the path is null. */
+	private static String wordSimilarityCacheFile = null;
+	
+	/** 
+	 * The WordNet dictionary directory from which an in-memory index computes the Wu & Palmer similarity for Triple-S. The
+	 * WNWordMetric of the Semilar API is used if the path is null.
+	 */
+	private static String wordNetDirectory = null;
+	
+	/** 
+	 * The compact word vector file written by the CompactWordVectorExtractor for the corpus, which is used by Triple-S2 instead of
+	 * the whole Word2Vec model. The whole model is loaded if the path is null.
+	 */
+	private static String compactVectorsFile = null;
+	
+	/** 
+	 * The mapped word vector file written by the MappedWordVectorWriter, which is used by Triple-S2 without loading it. It takes
+	 * precedence over the compact word vector file if the path is not null.
+	 */
+	private static String mappedVectorsFile = null;
+	
+	/** 
+	 * Whether Triple-S2 compares words by the dot product of normalized vectors, whose indices are attached to the transitions
+	 * after loading the corpus, instead of looking up each pair of words.
+	 */
+	private static boolean normalizedVectors = false;
+	
+	/** 
+	 * Whether Triple-S2 compares words by their vectors quantized to 8 bit integers, which take a quarter of the memory. It takes
+	 * precedence over normalized vectors. The QuantizationReport shows the resulting deviations of the semantic similarities.
+	 */
+	private static boolean quantizedVectors = false;
+	
+	/** 
+	 * Whether Triple-S2 computes the similarities of all pairs of words of two nets at once. It requires normalized vectors and
+	 * cannot be combined with quantized vectors.
+	 */
+	private static boolean similarityMatrixMatching = false;
+	
+	/** The dictionary assigning IDs to all words of the corpus. */
+	private static TokenDictionary tokenDictionary = new TokenDictionary();
+	
 	/**
 	 * The main method used as example for using the Triple-S code library.
 	 *
@@ -147,53 +220,45 @@ public class ExampleUsage {
 		System.out.println("----------------------------------");
 		System.out.println("");
 	
-		String path = configuration.getPath();
-
-		File dir = new File(path);
-		String absolutePath = dir.getAbsolutePath();
-		String[] fileList = getPNMLFiles(dir);
-		
-		int k = fileList.length;
-		
-		// Start parsing of nets.
-		ArrayList<PetriNet> nets1 = new ArrayList<PetriNet>();
-		ArrayList<PetriNet> nets2 = new ArrayList<PetriNet>();
-		PNMLParser pnmlParser = new PNMLParser();
-		for (int i = 0; i < k; i++) {
-			PetriNet net = new PetriNet(absolutePath+File.separatorChar+fileList[i], fileList[i]);		
-			pnmlParser.startParsing(net);
-			net.preprocessTransitions();
-			nets1.add(net);
-			nets2.add(net);
-		}
-
-		ArrayList<Match> matches = new ArrayList<Match>();
+		// Parse and preprocess the nets in parallel.
+		ArrayList<PetriNet> nets = loadNets();
 
 		long startTime = System.currentTimeMillis();
 
-		// Create a Triple-S matcher and start the matching process.
-		TripleS tripleSMatcher = new TripleS();
+		// Create a Triple-S matcher and match all pairs of process models in parallel.
+		WordSimilarityMetric wordMetric;
+		if (wordNetDirectory != null)
+			wordMetric = WordNetIndex.load(new File(wordNetDirectory));
+		else
+			wordMetric = new WNWordSimilarity();
+		CachedWordSimilarity wordSimilarity = new CachedWordSimilarity(wordMetric, wordSimilarityCacheSize, 
+				CachedWordSimilarity.EvictionPolicy.LRU);
+		if (wordSimilarityCacheFile != null && new File(wordSimilarityCacheFile).isFile())
+			wordSimilarity.load(new File(wordSimilarityCacheFile));
+		TripleS tripleSMatcher = new TripleS(wordSimilarity);
 		tripleSMatcher.setSyntacticWeight( configuration.getWeights().get("Syntactic Weight") );
 		tripleSMatcher.setSemanticWeight( configuration.getWeights().get("Semantic Weight") );
 		tripleSMatcher.setStructuralArcWeight( configuration.getWeights().get("Structural Arc Weight") );
 		tripleSMatcher.setStructuralPositionWeight( configuration.getWeights().get("Structural Position Weight") );
 		tripleSMatcher.setThreshold( configuration.getWeights().get("Threshold") );
 		
-		for (int i = 0; i < k; i++) {						
-			for (int j = i + 1; j < k; j++) {
-				// Create a TripleS matcher and start the matching process.
-				tripleSMatcher.setNet1(nets1.get(i));
-				tripleSMatcher.setNet2(nets2.get(j));
-				tripleSMatcher.startMatching();
-				matches = tripleSMatcher.getMatches();
-				
-				// Code for writing matches to a file or handle them in some other way can come here.
-				System.out.println("Number of matches found for the current pair of process models = "+matches.size());
-				
-				matches.clear();
-			}
+		if (levenshteinCacheSize > 0)
+			tripleSMatcher.setLevenshteinCache( new LevenshteinCache(tokenDictionary, levenshteinCacheSize) );
+		
+		CorpusMatcher corpusMatcher = new CorpusMatcher(tripleSMatcher);
+		List<MatchResult> results = corpusMatcher.matchAll(nets);
+		
+		for (MatchResult result: results) {
+			// Code for writing matches to a file or handle them in some other way can come here.
+			System.out.println("Number of matches found for the current pair of process models = "+result.getAmountOfMatches());
 		}
 		
+		if (tripleSMatcher.getLevenshteinCache() != null)
+			System.out.println("Hit rate of the Levenshtein cache: "+tripleSMatcher.getLevenshteinCache().getHitRate());
+		System.out.println("Hit rate of the word similarity cache: "+wordSimilarity.getHitRate());
+		if (wordSimilarityCacheFile != null)
+			wordSimilarity.save(new File(wordSimilarityCacheFile));
+		
 		long endTime = System.currentTimeMillis();
 		System.out.println("Time passed for matching: "+(endTime-startTime));	
 	}
@@ -212,80 +277,108 @@ public class ExampleUsage {
 		System.out.println("----------------------------------");
 		System.out.println("");
 	
-		String path = configuration.getPath();
-
-		File dir = new File(path);
-		String absolutePath = dir.getAbsolutePath();
-		String[] fileList = getPNMLFiles(dir);
-		
-		int k = fileList.length;
-		
-		// Start parsing of nets.
-		ArrayList<PetriNet> nets1 = new ArrayList<PetriNet>();
-		ArrayList<PetriNet> nets2 = new ArrayList<PetriNet>();
-		PNMLParser pnmlParser = new PNMLParser();
-		for (int i = 0; i < k; i++) {
-			PetriNet net = new PetriNet(absolutePath+File.separatorChar+fileList[i], fileList[i]);		
-			pnmlParser.startParsing(net);
-			net.preprocessTransitions();
-			nets1.add(net);
-			nets2.add(net);
-		}
-
-		ArrayList<Match> matches = new ArrayList<Match>();
+		// Parse and preprocess the nets in parallel.
+		ArrayList<PetriNet> nets = loadNets();
 
 		long startTime = System.currentTimeMillis();
 		
-		// Initialize Word2Vec with a path to your Word2Vec vectors
-		File gModel = new File("Path to your Word2Vec vectors");
-		Word2Vec vec = WordVectorSerializer.readWord2VecModel(gModel);
+		if (quantizedVectors && similarityMatrixMatching)
+			throw new IllegalStateException("Quantized vectors cannot be combined with similarity matrix matching.");
+		WordVectorSimilarity vectors;
+		if (mappedVectorsFile != null) {
+			// Map the vectors, sharing them with other processes using the same file
+			vectors = new MappedWordVectors(new File(mappedVectorsFile));
+		} else if (compactVectorsFile != null) {
+			// Load only the vectors of the words of the corpus
+			vectors = CompactWordVectors.load(new File(compactVectorsFile));
+		} else {
+			// Initialize Word2Vec with a path to your Word2Vec vectors
+			File gModel = new File("Path to your Word2Vec vectors");
+			Word2Vec vec = WordVectorSerializer.readWord2VecModel(gModel);
+			vectors = new Word2VecSimilarity(vec);
+		}
+		if (quantizedVectors) {
+			// Quantize the vectors of the words of the corpus and attach the indices of the words to the transitions
+			QuantizedWordVectors quantized = new QuantizedWordVectors(vectors, CompactWordVectorExtractor.collectVocabulary(nets));
+			quantized.attach(nets);
+			// Drop the original vectors, so only the quantized vectors are kept in memory during matching
+			vectors = quantized;
+		} else if (normalizedVectors) {
+			// Normalize the vector of each word of the corpus once and attach the indices of the words to the transitions
+			NormalizedWordVectors normalized = new NormalizedWordVectors(vectors);
+			normalized.attach(nets);
+			vectors = normalized;
+		}
 
-		// Create a Triple-S2 matcher and start the matching process.
-		TripleS2 tripleS2Matcher = new TripleS2(vec);
+		// Create a Triple-S2 matcher and match all pairs of process models in parallel.
+		TripleS2 tripleS2Matcher = new TripleS2(vectors);
 		tripleS2Matcher.setSyntacticWeight( configuration.getWeights().get("Syntactic Weight") );
 		tripleS2Matcher.setSemanticWeight( configuration.getWeights().get("Semantic Weight") );
 		tripleS2Matcher.setStructuralWeightsyn( configuration.getWeights().get("Structural Weight Syn") );
 		tripleS2Matcher.setStructuralWeightsem( configuration.getWeights().get("Structural Weight Sem") );
 		tripleS2Matcher.setThresholdsyn( configuration.getWeights().get("Threshold Syn") );
 		tripleS2Matcher.setThresholdsem( configuration.getWeights().get("Threshold Sem") );
+		tripleS2Matcher.setSimilarityMatrixMatching(similarityMatrixMatching);
 		
-		for (int i = 0; i < k; i++) {						
-			for (int j = i + 1; j < k; j++) {
-				tripleS2Matcher.setNet1(nets1.get(i));
-				tripleS2Matcher.setNet2(nets2.get(j));
-				tripleS2Matcher.startMatching();
-				matches = tripleS2Matcher.getMatches();
-
-				// Code for writing matches to a file or handle them in some other way can come here.
-				System.out.println("Number of matches found for the current pair of process models = "+matches.size());
-				
-				matches.clear();
-			}
+		if (levenshteinCacheSize > 0)
+			tripleS2Matcher.setLevenshteinCache( new LevenshteinCache(tokenDictionary, levenshteinCacheSize) );
+		
+		CorpusMatcher corpusMatcher = new CorpusMatcher(tripleS2Matcher);
+		List<MatchResult> results = corpusMatcher.matchAll(nets);
+		
+		for (MatchResult result: results) {
+			// Code for writing matches to a file or handle them in some other way can come here.
+			System.out.println("Number of matches found for the current pair of process models = "+result.getAmountOfMatches());
 		}
 		
+		if (tripleS2Matcher.getLevenshteinCache() != null)
+			System.out.println("Hit rate of the Levenshtein cache: "+tripleS2Matcher.getLevenshteinCache().getHitRate());
+		
 		long endTime = System.currentTimeMillis();
 		System.out.println("Time passed for matching: "+(endTime-startTime));
 	}
 	
 	/**
-	 * Gets the PNML files from a directory while filtering other files having not the ending .pnml.
+	 * Loads the PNML files from the input directory or archive in parallel while filtering other files having not the ending .pnml.
 	 *
-	 * @param dir the path to the directory with the PNML files.
-	 * @return the PNML files contained in a String array.
+	 * @return the parsed and preprocessed labeled workflow nets.
+	 * @throws IOException signals that an I/O exception has occurred when accessing the PNML files.
 	 */
-	private static String[] getPNMLFiles(File dir) {
-		// check if directory can be accessed
-		if (!dir.isDirectory()) {
-			System.out.println("Error: could not open directory "+dir.getAbsolutePath());
+	private static ArrayList<PetriNet> loadNets() throws IOException {
+		File corpus = new File(configuration.getPath());
+		// check if directory or archive can be accessed
+		if (!corpus.exists()) {
+			System.out.println("Error: could not open directory or archive "+corpus.getAbsolutePath());
 			System.exit(-2);
 		}
-		// Filter PNML files
-		String[] fileList = dir.list(new FilenameFilter() {
-			public boolean accept(File d, String name) {
-				return name.endsWith(".pnml");
+		
+		// Preprocess each distinct transition label only once.
+		CachingLabelPreprocessor labelPreprocessor;
+		if (simplePreprocessing)
+			labelPreprocessor = new CachingLabelPreprocessor(new SimpleLabelPreprocessor());
+		else
+			labelPreprocessor = new CachingLabelPreprocessor(StanfordLabelPreprocessor.getDefaultInstance());
+		if (labelCacheFile != null && new File(labelCacheFile).isFile())
+			labelPreprocessor.load(new File(labelCacheFile));
+		
+		CorpusLoader corpusLoader = new CorpusLoader();
+		corpusLoader.setLabelPreprocessor(labelPreprocessor);
+		corpusLoader.setTokenDictionary(tokenDictionary);
+		if (snapshotCacheDir != null)
+			corpusLoader.setSnapshotCache(new SnapshotCache(new File(snapshotCacheDir)));
+		corpusLoader.setProgressListener(new LoadProgressListener() {
+			public void netLoaded(PetriNet net, int loadedNets, int totalNets) {
+				if (totalNets < 0)
+					System.out.println("Loaded process model "+loadedNets+": "+net.getPnmlFileName());
+				else
+					System.out.println("Loaded process model "+loadedNets+" of "+totalNets+": "+net.getPnmlFileName());
 			}
-		});		
-		return fileList;
+		});
+		ArrayList<PetriNet> nets = corpusLoader.load(corpus);
+		
+		if (labelCacheFile != null)
+			labelPreprocessor.save(new File(labelCacheFile));
+		return nets;
 	}
 	
 }
@@ -0,0 +1,31 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.MatchingManager;
+
+import de.andreasschoknecht.PetriNet.PetriNet;
+
+/**
+ * The interface LoadProgressListener is notified by the CorpusLoader whenever a labeled workflow net has been parsed and preprocessed.
+ * Notifications arrive from the worker threads of the CorpusLoader, so implementations have to be thread-safe.
+ */
+public interface LoadProgressListener {
+	
+	/**
+	 * Is called after a labeled workflow net has been loaded.
+	 * 
+	 * @param net The labeled workflow net which has been loaded.
+	 * @param loadedNets The number of labeled workflow nets loaded so far.
+	 * @param totalNets The total number of labeled workflow nets to load or -1 if it is not known before the whole corpus has been read.
+	 */
+	public void netLoaded(PetriNet net, int loadedNets, int totalNets);
+
+}
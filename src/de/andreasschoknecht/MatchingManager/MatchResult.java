@@ -0,0 +1,62 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.MatchingManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.andreasschoknecht.PetriNet.PetriNet;
+
+/**
+ * The class MatchResult holds the matches found between two labeled workflow nets. A MatchResult cannot be changed after its creation.
+ */
+public class MatchResult {
+	
+	/** The two labeled workflow nets which have been matched. */
+	private final PetriNet net1, net2;
+	
+	/** The matches found between the transitions of net1 and net2. */
+	private final List<Match> matches;
+	
+	/**
+	 * Instantiates a new match result. The given matches are copied.
+	 *
+	 * @param net1 the first labeled workflow net
+	 * @param net2 the second labeled workflow net
+	 * @param matches the matches found between the two labeled workflow nets
+	 */
+	public MatchResult(PetriNet net1, PetriNet net2, List<Match> matches) {
+		this.net1 = net1;
+		this.net2 = net2;
+		this.matches = Collections.unmodifiableList( new ArrayList<Match>(matches) );
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public PetriNet getNet1() {
+		return net1;
+	}
+
+	public PetriNet getNet2() {
+		return net2;
+	}
+
+	public List<Match> getMatches() {
+		return matches;
+	}
+	
+	public int getAmountOfMatches() {
+		return matches.size();
+	}
+	/* ------------------------- */
+}
@@ -0,0 +1,32 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.MatchingManager;
+
+import de.andreasschoknecht.PetriNet.PetriNet;
+
+/**
+ * The interface ProcessModelMatcher represents an abstraction level for the different Triple-S matchers, which enables running them
+ * on a whole corpus of process models. Implementations must not change their state while matching, such that one matcher can be
+ * used by several threads at the same time.
+ */
+public interface ProcessModelMatcher {
+	
+	/**
+	 * Matches two labeled workflow nets.
+	 * 
+	 * @param net1 The first labeled workflow net to match.
+	 * @param net2 The second labeled workflow net to match.
+	 * @return Returns the matches found between the two labeled workflow nets.
+	 */
+	public MatchResult match(PetriNet net1, PetriNet net2);
+
+}
@@ -0,0 +1,254 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.PetriNet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The class CompiledPetriNet is an immutable, compact representation of the graph of a labeled workflow net, on which the graph
+ * algorithms of this package run.
+ *
+ * Every vertex is identified by a dense int ID. The transitions of the net get the IDs [0, amountOfTransitions) in the order of
+ * PetriNet.getTransitions() and the places get the IDs [amountOfTransitions, amountOfVertices) in the order of PetriNet.getPlaces().
+ * The arcs are stored in compressed sparse row form: the successors of vertex v are found at the positions
+ * [getSuccessorOffset(v), getSuccessorOffset(v + 1)) and the predecessors analogously.
+ */
+public class CompiledPetriNet {
+
+	/** The transitions and places of the net, indexed by their int ID. */
+	private final Vertex[] vertices;
+
+	/** The number of transitions, which is also the ID of the first place. */
+	private final int amountOfTransitions;
+
+	/** Maps the vertex objects of the net to their int ID. Only used for translating between both representations. */
+	private final HashMap<Vertex, Integer> ids;
+
+	/** The forward adjacency: offsets per vertex, target vertex and weight per arc. */
+	private final int[] successorOffsets, successors, successorWeights;
+
+	/** The reverse adjacency: offsets per vertex, source vertex and weight per arc. */
+	private final int[] predecessorOffsets, predecessors, predecessorWeights;
+
+	/** Whether all arcs have a weight of 1. */
+	private final boolean unitArcWeights;
+
+	/** The IDs of the first place without incoming arcs and the first place without outgoing arcs, -1 if there is none. */
+	private final int sourcePlace, sinkPlace;
+
+	/**
+	 * Compiles the current graph of a labeled workflow net. Later changes of the net are not reflected by the compiled net.
+	 *
+	 * @param net The labeled workflow net.
+	 * @throws IllegalArgumentException if an arc connects a vertex which is neither a place nor a transition of the net.
+	 */
+	public CompiledPetriNet(PetriNet net) {
+		List<Transition> transitions = net.getTransitions();
+		List<Place> places = net.getPlaces();
+		List<Edge> arcs = net.getArcs();
+		amountOfTransitions = transitions.size();
+		int n = amountOfTransitions + places.size();
+		int m = arcs.size();
+
+		vertices = new Vertex[n];
+		ids = new HashMap<Vertex, Integer>(2 * n);
+		for (int i = 0; i < amountOfTransitions; i++) {
+			vertices[i] = transitions.get(i);
+			ids.put(vertices[i], i);
+		}
+		for (int i = amountOfTransitions; i < n; i++) {
+			vertices[i] = places.get(i - amountOfTransitions);
+			ids.put(vertices[i], i);
+		}
+
+		int[] sources = new int[m];
+		int[] targets = new int[m];
+		successorOffsets = new int[n + 1];
+		predecessorOffsets = new int[n + 1];
+		boolean unitWeights = true;
+		for (int e = 0; e < m; e++) {
+			Edge arc = arcs.get(e);
+			sources[e] = getId(arc.getSource());
+			targets[e] = getId(arc.getTarget());
+			successorOffsets[sources[e] + 1]++;
+			predecessorOffsets[targets[e] + 1]++;
+			if (arc.getWeight() != 1)
+				unitWeights = false;
+		}
+		unitArcWeights = unitWeights;
+		for (int i = 0; i < n; i++) {
+			successorOffsets[i + 1] += successorOffsets[i];
+			predecessorOffsets[i + 1] += predecessorOffsets[i];
+		}
+
+		// Fill the arrays in arc order, such that the neighbors of a vertex keep the order in which the arcs have been added.
+		successors = new int[m];
+		successorWeights = new int[m];
+		predecessors = new int[m];
+		predecessorWeights = new int[m];
+		int[] successorPositions = new int[n];
+		int[] predecessorPositions = new int[n];
+		System.arraycopy(successorOffsets, 0, successorPositions, 0, n);
+		System.arraycopy(predecessorOffsets, 0, predecessorPositions, 0, n);
+		for (int e = 0; e < m; e++) {
+			int weight = arcs.get(e).getWeight();
+			int successorPosition = successorPositions[sources[e]]++;
+			successors[successorPosition] = targets[e];
+			successorWeights[successorPosition] = weight;
+			int predecessorPosition = predecessorPositions[targets[e]]++;
+			predecessors[predecessorPosition] = sources[e];
+			predecessorWeights[predecessorPosition] = weight;
+		}
+
+		int source = -1, sink = -1;
+		for (int i = amountOfTransitions; i < n; i++) {
+			if (source < 0 && getInDegree(i) == 0)
+				source = i;
+			if (sink < 0 && getOutDegree(i) == 0)
+				sink = i;
+		}
+		sourcePlace = source;
+		sinkPlace = sink;
+	}
+
+	/**
+	 * Returns the int ID of a transition or place of the compiled net.
+	 *
+	 * @param vertex The transition or place.
+	 * @return Returns the int ID of the vertex.
+	 * @throws IllegalArgumentException if the vertex is not part of the compiled net.
+	 */
+	public int getId(Vertex vertex) {
+		Integer id = ids.get(vertex);
+		if (id == null)
+			throw new IllegalArgumentException("The vertex " + (vertex == null ? null : vertex.getId()) + " is not part of the net.");
+		return id;
+	}
+
+	/**
+	 * Checks whether an int ID belongs to a transition.
+	 *
+	 * @param id The int ID of a vertex.
+	 * @return Returns true for transitions, false for places.
+	 */
+	public boolean isTransition(int id) {
+		return id < amountOfTransitions;
+	}
+
+	public int getOutDegree(int id) {
+		return successorOffsets[id + 1] - successorOffsets[id];
+	}
+
+	public int getInDegree(int id) {
+		return predecessorOffsets[id + 1] - predecessorOffsets[id];
+	}
+
+	/**
+	 * Returns the transitions and places succeeding a vertex. A successor connected by several arcs is contained several times.
+	 *
+	 * @param id The int ID of the vertex.
+	 * @return Returns the int IDs of the successors.
+	 */
+	public int[] getSuccessors(int id) {
+		int[] result = new int[getOutDegree(id)];
+		System.arraycopy(successors, successorOffsets[id], result, 0, result.length);
+		return result;
+	}
+
+	/**
+	 * Returns the transitions and places preceding a vertex. A predecessor connected by several arcs is contained several times.
+	 *
+	 * @param id The int ID of the vertex.
+	 * @return Returns the int IDs of the predecessors.
+	 */
+	public int[] getPredecessors(int id) {
+		int[] result = new int[getInDegree(id)];
+		System.arraycopy(predecessors, predecessorOffsets[id], result, 0, result.length);
+		return result;
+	}
+
+	/**
+	 * Returns the vertices of the compiled net in the order of their int IDs.
+	 *
+	 * @return Returns a new list containing the vertices.
+	 */
+	public List<Vertex> getVertices() {
+		List<Vertex> result = new ArrayList<Vertex>(vertices.length);
+		for (Vertex vertex: vertices) {
+			result.add(vertex);
+		}
+		return result;
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public Vertex getVertex(int id) {
+		return vertices[id];
+	}
+
+	public int getAmountOfVertices() {
+		return vertices.length;
+	}
+
+	public int getAmountOfTransitions() {
+		return amountOfTransitions;
+	}
+
+	public int getAmountOfPlaces() {
+		return vertices.length - amountOfTransitions;
+	}
+
+	public int getAmountOfArcs() {
+		return successors.length;
+	}
+
+	/** Returns the first position of the successors of a vertex. Valid for the IDs [0, amountOfVertices]. */
+	public int getSuccessorOffset(int id) {
+		return successorOffsets[id];
+	}
+
+	public int getSuccessor(int position) {
+		return successors[position];
+	}
+
+	public int getSuccessorWeight(int position) {
+		return successorWeights[position];
+	}
+
+	/** Returns the first position of the predecessors of a vertex. Valid for the IDs [0, amountOfVertices]. */
+	public int getPredecessorOffset(int id) {
+		return predecessorOffsets[id];
+	}
+
+	public int getPredecessor(int position) {
+		return predecessors[position];
+	}
+
+	public int getPredecessorWeight(int position) {
+		return predecessorWeights[position];
+	}
+
+	public boolean hasUnitArcWeights() {
+		return unitArcWeights;
+	}
+
+	public int getSourcePlace() {
+		return sourcePlace;
+	}
+
+	public int getSinkPlace() {
+		return sinkPlace;
+	}
+	/* ------------------------- */
+}
@@ -11,135 +11,242 @@
 
 package de.andreasschoknecht.PetriNet;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * This class can be used to parse a Petri Net stored as a PNML file.
+ *
+ * The document is read in a single pass with a streaming StAX parser, so no DOM tree is built. The label of a place or transition is
+ * the content of the last text element inside of it. Places are added to the net before transitions and arcs are resolved after all
+ * nodes are known, such that the resulting net does not depend on the order of the elements in the document.
  */
 public class PNMLParser {
 
+	/** The factory for the stream readers, shared by all parsers. */
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
 	/**
-	 * Parses a PNML file and stores its places, transitions and arcs in the PetriNet object.
-	 * 
+	 * Parses the PNML file referenced by the Petri Net and stores its places, transitions and arcs in the PetriNet object.
+	 *
 	 * @param net The Petri Net to store its elements.
 	 */
 	public void startParsing(PetriNet net){
-
-		DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder builder = null;
+		InputStream in = null;
 		try {
-			builder = builderFactory.newDocumentBuilder();
-
-			// Document represents PNML file as DOM tree
-			Document document = builder.parse( net.getPnmlFile() );
-
-			// Get root element
-			Element rootElement = document.getDocumentElement();
-
-			/* Process place elements */
-			/*----------------------------------------*/
-			NodeList nodes = rootElement.getElementsByTagName("place");
-
-			for(int i = 0, n = nodes.getLength(); i < n; i++){
-				Node node = nodes.item(i);
-				Element child = (Element) node;
+			in = new BufferedInputStream(new FileInputStream( net.getPnmlFile() ), 1 << 16);
+			startParsing(net, in);
+		} catch (FileNotFoundException e) {
+			System.out.println("PNML file could not be found!");
+		} finally {
+			close(in);
+		}
+	}
 
-				Place place = new Place();
+	/**
+	 * Parses a PNML document held in memory and stores its places, transitions and arcs in the PetriNet object. The position of the
+	 * buffer is not changed.
+	 *
+	 * @param net The Petri Net to store its elements.
+	 * @param buffer The bytes of the PNML document between the position and the limit of the buffer.
+	 */
+	public void startParsing(PetriNet net, ByteBuffer buffer){
+		startParsing(net, new ByteBufferInputStream(buffer.duplicate()));
+	}
 
-				place.setId(child.getAttribute("id"));
+	/**
+	 * Parses a PNML document read from a stream and stores its places, transitions and arcs in the PetriNet object. The stream is
+	 * not closed.
+	 *
+	 * @param net The Petri Net to store its elements.
+	 * @param in The stream providing the PNML document.
+	 */
+	public void startParsing(PetriNet net, InputStream in){
+		XMLStreamReader reader = null;
+		try {
+			synchronized (INPUT_FACTORY) {
+				reader = INPUT_FACTORY.createXMLStreamReader(in);
+			}
 
-				NodeList placeNodes = child.getElementsByTagName("text");
-				Node placeNode = placeNodes.item( placeNodes.getLength()-1 );
-				Element placeElement = (Element) placeNode;
-				place.setLabel(placeElement.getTextContent());
+			ArrayList<Place> places = new ArrayList<Place>();
+			ArrayList<Transition> transitions = new ArrayList<Transition>();
+			ArrayList<String[]> arcs = new ArrayList<String[]>();
+
+			// The place or transition currently read, its label and the content of the text element currently read
+			Vertex currentNode = null;
+			String currentLabel = null;
+			StringBuilder text = null;
+			int textDepth = 0;
+
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					String name = reader.getLocalName();
+					if (currentNode == null) {
+						if (name.equals("place")) {
+							Place place = new Place();
+							place.setId( attribute(reader, "id") );
+							currentNode = place;
+							currentLabel = "";
+						} else if (name.equals("transition")) {
+							Transition transition = new Transition();
+							transition.setId( attribute(reader, "id") );
+							currentNode = transition;
+							currentLabel = "";
+						} else if (name.equals("arc")) {
+							arcs.add( new String[] {attribute(reader, "id"), attribute(reader, "source"), attribute(reader, "target")} );
+						}
+					} else if (textDepth > 0) {
+						textDepth++;
+					} else if (name.equals("text")) {
+						text = new StringBuilder();
+						textDepth = 1;
+					}
+					break;
+
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					if (textDepth > 0)
+						text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+					break;
+
+				case XMLStreamConstants.END_ELEMENT:
+					if (textDepth > 0) {
+						if (--textDepth == 0)
+							currentLabel = text.toString();
+					} else if (currentNode instanceof Place && reader.getLocalName().equals("place")) {
+						((Place) currentNode).setLabel(currentLabel);
+						places.add((Place) currentNode);
+						currentNode = null;
+					} else if (currentNode instanceof Transition && reader.getLocalName().equals("transition")) {
+						((Transition) currentNode).setLabel(currentLabel.toLowerCase());
+						transitions.add((Transition) currentNode);
+						currentNode = null;
+					}
+					break;
+
+				default:
+					break;
+				}
+			}
 
+			/* Add the elements to the net */
+			/*----------------------------------------*/
+			for (Place place: places) {
 				net.addPlace(place);
 				net.addVertex(place);
 			}
-			/*----------------------------------------*/
-
-			/* Process transition elements */
-			/*----------------------------------------*/
-			nodes = rootElement.getElementsByTagName("transition");
-
-			for(int i = 0, n = nodes.getLength(); i < n; i++){
-				Node node = nodes.item(i);
-				Element child = (Element) node;
-
-				Transition transition = new Transition();
-
-				transition.setId(child.getAttribute("id"));
-
-				NodeList transitionNodes = child.getElementsByTagName("text");
-				Node transitionNode = transitionNodes.item(transitionNodes.getLength()-1);
-				Element transitionElement = (Element) transitionNode;
-				transition.setLabel(transitionElement.getTextContent().toLowerCase());
 
+			for (Transition transition: transitions) {
 				net.addTransition(transition);
 				net.addVertex(transition);
 			}
-			/*----------------------------------------*/
-
-			/* Process arc elements */
-			/*----------------------------------------*/
-			nodes = rootElement.getElementsByTagName("arc");
-
-			for(int i = 0, n = nodes.getLength(); i < n; i++){
-				Node node = nodes.item(i);
-				Element child = (Element) node;
 
+			for (String[] arcAttributes: arcs) {
 				Arc arc = new Arc();
 
-				arc.setId(child.getAttribute("id"));
-				arc.setSource( findVertex(net.getVertices(), child.getAttribute("source")) );
-				arc.setTarget( findVertex(net.getVertices(), child.getAttribute("target")) );
+				arc.setId(arcAttributes[0]);
+				arc.setSource( net.getVertex(arcAttributes[1]) );
+				arc.setTarget( net.getVertex(arcAttributes[2]) );
 
 				net.addArc(arc);
 			}
 			/*----------------------------------------*/
-		} catch (ParserConfigurationException e) {
-			System.out.println("Something went wrong with the ParserConfiguration!");  
-		} catch (FileNotFoundException e) {
-			System.out.println("PNML file could not be found!");
-		} catch (SAXException e) {
-			System.out.println("Sax Exception!");
+		} catch (XMLStreamException e) {
+			System.out.println("XML Stream Exception!");
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException e) {
+					System.out.println("XML Stream Exception!");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads an attribute of the current element.
+	 *
+	 * @param reader The stream reader positioned at a start element.
+	 * @param name The local name of the attribute.
+	 * @return Returns the value of the attribute or an empty string if the element has no such attribute.
+	 */
+	private String attribute(XMLStreamReader reader, String name) {
+		String value = reader.getAttributeValue(null, name);
+		return value == null ? "" : value;
+	}
+
+	/**
+	 * Creates the factory for the stream readers. As PNML documents may be uploaded by users, DTDs are not processed at all, so neither
+	 * external entities are resolved nor internal entities are expanded. PNML does not use DTDs.
+	 *
+	 * @return Returns the configured factory.
+	 */
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return factory;
+	}
+
+	/**
+	 * Closes a stream.
+	 *
+	 * @param in The stream to close, may be null.
+	 */
+	private void close(InputStream in) {
+		if (in == null)
+			return;
+		try {
+			in.close();
 		} catch (IOException e) {
 			System.out.println("Something went wrong with the I/O operations!");
-		}		
+		}
 	}
 
 	/**
-	 * Finds a vertex based on its ID attribute value.
-	 *
-	 * @param vertices The vertices to search in.
-	 * @param id The ID of the vertex.
-	 * @return Returns the index of the searched vertex in the vertices list.
+	 * An input stream reading the remaining bytes of a byte buffer.
 	 */
-	private Vertex findVertex(List<Vertex> vertices, String id) {
-		boolean vertexNotFound = true;
-		Vertex vertex = null;
-		while (vertexNotFound) {
-			for (int i = 0, n = vertices.size(); i < n; i++) {
-				Vertex currentVertex = vertices.get(i);
-				if (currentVertex.getId().equals(id)) {
-					vertex =  currentVertex;
-					vertexNotFound = false;
-				}	
-			}
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		private ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (length == 0)
+				return 0;
+			if (!buffer.hasRemaining())
+				return -1;
+			int count = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
 		}
-		return vertex;
 	}
 
 }
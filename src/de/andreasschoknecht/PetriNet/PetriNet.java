@@ -12,14 +12,16 @@
 package de.andreasschoknecht.PetriNet;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 
+import de.andreasschoknecht.Dijkstra.BreadthFirstSearch;
 import de.andreasschoknecht.Dijkstra.DijkstraAlgorithm;
-import semilar.data.Sentence;
+import de.andreasschoknecht.Helpers.TokenDictionary;
+import de.andreasschoknecht.Preprocessing.LabelPreprocessor;
+import de.andreasschoknecht.Preprocessing.StanfordLabelPreprocessor;
 import semilar.data.Word;
-import semilar.tools.preprocessing.SentencePreprocessor;
 
 
 /**
@@ -31,7 +33,9 @@ public class PetriNet {
 	 * places contains a list of places of a labeled workflow net.
 	 * transitions contains a list of transitions of a labeled workflow net.
 	 * vertices contains all transition and place nodes of a labeled workflow net.
+	 * vertexIndex maps the IDs of all transition and place nodes to the nodes.
 	 * arcs contains a list of arcs of a labeled workflow net.
+	 * outgoingArcs and incomingArcs map every vertex with at least one arc to its outgoing and incoming arcs.
 	 * pnmlFile contains the full path to the PNML file representing the labeled workflow net.
 	 * pnmlFileName contains just the file name for writing alignments
 	 * startNode and endNode contain the IDs of the start and end nodes, i.e. places, of a labeled workflow net.
@@ -39,7 +43,9 @@ public class PetriNet {
 	private ArrayList<Place> places;
 	private ArrayList<Transition> transitions;
 	private ArrayList<Vertex> vertices;
+	private HashMap<String, Vertex> vertexIndex;
 	private ArrayList<Edge> arcs;
+	private HashMap<Vertex, ArrayList<Edge>> outgoingArcs, incomingArcs;
 	private String pnmlFile, pnmlFileName, startNode, endNode;
 	
 	/**
@@ -54,29 +60,37 @@ public class PetriNet {
 		this.transitions = new ArrayList<Transition>();
 		this.arcs = new ArrayList<Edge>();
 		this.vertices = new ArrayList<Vertex>();
+		this.vertexIndex = new HashMap<String, Vertex>();
+		this.outgoingArcs = new HashMap<Vertex, ArrayList<Edge>>();
+		this.incomingArcs = new HashMap<Vertex, ArrayList<Edge>>();
 	}
 
 	/**
-	 * Preprocesses the transitions of a Petri Net. This currently includes label tokenization, conversion to lower case, word stemming and 
-	 * stop word removal using the Semilar API (see http://deeptutor2.memphis.edu/Semilar-Web/index.jsp).
+	 * Preprocesses the transitions of a Petri Net with the shared default StanfordLabelPreprocessor. This currently includes label 
+	 * tokenization, conversion to lower case, word stemming and stop word removal using the Semilar API 
+	 * (see http://deeptutor2.memphis.edu/Semilar-Web/index.jsp).
 	 * 
 	 * Besides, arc relations and relative position of transitions in a labeled workflow net are calculated.
 	 */
 	public void preprocessTransitions() {
+		preprocessTransitions( StanfordLabelPreprocessor.getDefaultInstance() );
+	}
+	
+	/**
+	 * Preprocesses the transitions of a Petri Net with the given label preprocessor and removes stop words afterwards.
+	 * 
+	 * Besides, arc relations and relative position of transitions in a labeled workflow net are calculated.
+	 * 
+	 * @param preprocessor The label preprocessor, which can be shared by all Petri Nets of a corpus.
+	 */
+	public void preprocessTransitions(LabelPreprocessor preprocessor) {
 			
 		for (int i = 0, m = this.getTransitions().size(); i < m; i++) {
 			String label = this.getTransitions().get(i).getLabel();
 			if(label.length() > 0) {
-				Sentence sentence;
-		        SentencePreprocessor preprocessor = new SentencePreprocessor(SentencePreprocessor.TokenizerType.STANFORD, 
-		        		SentencePreprocessor.TaggerType.STANFORD,
-		        		SentencePreprocessor.StemmerType.PORTER,
-		        		SentencePreprocessor.ParserType.STANFORD);
-		        
-		        sentence = preprocessor.preprocessSentence(label);
-		        ArrayList<Word> words = sentence.getWords();
-		        
-		        this.getTransitions().get(i).setPreProcLabel( removeStopWords(words) );				
+				ArrayList<Word> words = preprocessor.preprocess(label);
+				
+				this.getTransitions().get(i).setPreProcLabel( removeStopWords(words) );				
 			} else
 				this.getTransitions().get(i).setPreProcLabel( new ArrayList<Word>() );
 			
@@ -88,6 +102,18 @@ public class PetriNet {
 		calculateTransitionPositions();
 	}
 	
+	/**
+	 * Interns the words of the preprocessed labels of all transitions into a token dictionary.
+	 * 
+	 * @param dictionary The token dictionary, which is usually shared by all Petri Nets of a corpus.
+	 * @see Transition#internWords(TokenDictionary)
+	 */
+	public void internWords(TokenDictionary dictionary) {
+		for (Transition transition: this.getTransitions()) {
+			transition.internWords(dictionary);
+		}
+	}
+	
 	/**
 	 * Removes English stop words from a list of words.
 	 * 
@@ -109,123 +135,189 @@ public class PetriNet {
 	 * @param transition The transition for which the amount of incoming and outgoing arcs is determined.
 	 */
 	public void calculateArcNumbers(Transition transition) {
-		int incoming = 0, outgoing = 0;
-		String transitionID = transition.getId();
-		
-		for(int j = 0, n = this.getArcs().size(); j < n; j++){
-			if(transitionID.equals(this.getArcs().get(j).getSource().getId())){
-				outgoing++;
-			}
-			if(transitionID.equals(this.getArcs().get(j).getTarget().getId())){
-				incoming++;
-			}				
-		}
-			
-		transition.setIncomingArcs(incoming);
-		transition.setOutgoingArcs(outgoing);
+		Vertex vertex = getVertex(transition.getId());
+		transition.setIncomingArcs( getInDegree(vertex) );
+		transition.setOutgoingArcs( getOutDegree(vertex) );
 	}
 	
 	/**
 	 * Calculates relative transition positions in a labeled workflow net for all transitions contained in the workflow net.
 	 * 
-	 * Therefore Dijkstra's shortest path algorithm is used, calculating distances between the source place of a workflow net and
-	 * a transition as well as between a transition and the sink place.
+	 * Therefore the shortest distances between the source place of a workflow net and a transition as well as between a transition and
+	 * the sink place are calculated on the compiled net. One forward and one backward search yield these distances for all transitions:
+	 * a breadth-first search if all arcs have a weight of 1 and Dijkstra's shortest path algorithm otherwise.
 	 */
 	public void calculateTransitionPositions() {
+	    CompiledPetriNet compiledNet = compile();
+	    
 	    /* Determine start and end node of the labeled workflow net */
 	    /* -------------------------------------------------- */
-	    HashSet<String> targetArcIDs = new HashSet<String>();
-	    for (int j = 0, m = this.getArcs().size(); j < m; j++) {
-	    	targetArcIDs.add(this.getArcs().get(j).getTarget().getId());
-		}
-	    HashSet<String> sourceArcIDs = new HashSet<String>();
-	    for (int j = 0, m = this.getArcs().size(); j < m; j++) {
-	    	sourceArcIDs.add(this.getArcs().get(j).getSource().getId());
-		}
-	    this.determineStartNode(targetArcIDs);
-	    this.determineEndNode(sourceArcIDs);
+	    int source = compiledNet.getSourcePlace();
+	    int sink = compiledNet.getSinkPlace();
+	    startNode = source < 0 ? null : compiledNet.getVertex(source).getId();
+	    endNode = sink < 0 ? null : compiledNet.getVertex(sink).getId();
 	    /* -------------------------------------------------- */
 	    
-	    DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(arcs);
+	    // A net without transitions, e.g. of a malformed PNML file, has no positions to calculate.
+	    if (this.getTransitions().isEmpty())
+	    	return;
+	    if (startNode == null || endNode == null)
+	    	throw new IllegalStateException("The net " + pnmlFileName + " has no source or sink place.");
+	    
+	    int[] distancesStart, distancesEnd;
+	    if (compiledNet.hasUnitArcWeights()) {
+	    	BreadthFirstSearch search = new BreadthFirstSearch(compiledNet);
+	    	distancesStart = search.distancesFrom(source);
+	    	distancesEnd = search.distancesTo(sink);
+	    } else {
+	    	DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(compiledNet);
+	    	distancesStart = dijkstra.distancesFrom(source);
+	    	distancesEnd = dijkstra.distancesTo(sink);
+	    }
 	    
-	    for (int i = 0, n = this.getTransitions().size(); i < n; i++) {    
+	    // The transitions have the int IDs [0, amountOfTransitions) in the order of transitions.
+	    for (int i = 0, n = this.getTransitions().size(); i < n; i++) {
 	    	Transition currentTransition = this.getTransitions().get(i);
-	    	int currentIndexInVertices = findVertex(vertices, currentTransition.getId());
 	    	
-		    dijkstra.execute(vertices.get(findVertex(vertices, startNode)));
-		    LinkedList<Vertex> pathToStart = dijkstra.getPath(vertices.get(currentIndexInVertices));
-		    
-		    dijkstra.execute(vertices.get(currentIndexInVertices));
-		    LinkedList<Vertex> pathToEnd = dijkstra.getPath(vertices.get(findVertex(vertices, endNode)));
-		    
-		    currentTransition.setDistanceStart(pathToStart.size() - 1);
-		    currentTransition.setDistanceEnd(pathToEnd.size() - 1);
-		    currentTransition.calculateRelativePosition();
+	    	if (distancesStart[i] < 0 || distancesEnd[i] < 0)
+	    		throw new IllegalStateException("The transition " + currentTransition.getId() + " of the net " + pnmlFileName 
+	    				+ " is not on a path from the source to the sink place.");
+	    	
+	    	currentTransition.setDistanceStart(distancesStart[i]);
+	    	currentTransition.setDistanceEnd(distancesEnd[i]);
+	    	currentTransition.calculateRelativePosition();
 	    }
 	}
 	
+	/**
+	 * Compiles the current graph of the labeled workflow net into an immutable int-indexed representation. Later changes of the net
+	 * are not reflected by the compiled net.
+	 *
+	 * @return Returns the compiled net.
+	 */
+	public CompiledPetriNet compile() {
+		return new CompiledPetriNet(this);
+	}
+	
 	/**
 	 * Finds a vertex based on its ID attribute value.
 	 *
-	 * @param vertices The vertices to search in.
 	 * @param id The ID of the vertex.
-	 * @return Returns the index of the searched vertex in the vertices list.
+	 * @return Returns the vertex with the given ID.
+	 * @throws IllegalArgumentException if the net contains no vertex with the given ID.
+	 */
+	public Vertex getVertex(String id) {
+		Vertex vertex = vertexIndex.get(id);
+		if (vertex == null)
+			throw new IllegalArgumentException("The net " + pnmlFileName + " contains no place or transition with the ID " + id + ".");
+		return vertex;
+	}
+	
+	/**
+	 * Returns the arcs leaving a vertex.
+	 *
+	 * @param vertex The source vertex of the arcs.
+	 * @return Returns the outgoing arcs of the vertex in the order they have been added, an empty list if there are none.
+	 */
+	public List<Edge> getOutgoingArcs(Vertex vertex) {
+		return adjacentArcs(outgoingArcs, vertex);
+	}
+	
+	/**
+	 * Returns the arcs entering a vertex.
+	 *
+	 * @param vertex The target vertex of the arcs.
+	 * @return Returns the incoming arcs of the vertex in the order they have been added, an empty list if there are none.
+	 */
+	public List<Edge> getIncomingArcs(Vertex vertex) {
+		return adjacentArcs(incomingArcs, vertex);
+	}
+	
+	/**
+	 * Returns the number of arcs leaving a vertex.
+	 *
+	 * @param vertex The source vertex of the arcs.
+	 * @return Returns the amount of outgoing arcs.
+	 */
+	public int getOutDegree(Vertex vertex) {
+		ArrayList<Edge> edges = outgoingArcs.get(vertex);
+		return edges == null ? 0 : edges.size();
+	}
+	
+	/**
+	 * Returns the number of arcs entering a vertex.
+	 *
+	 * @param vertex The target vertex of the arcs.
+	 * @return Returns the amount of incoming arcs.
 	 */
-	private int findVertex(List<Vertex> vertices, String id) {
-	//private int findVertex(List<Vertex> vertices, String id) {
-		boolean vertexNotFound = true;
-		int index = 0;
-		while (vertexNotFound) {
-			for (int i = 0, n = vertices.size(); i < n; i++) {
-				if (vertices.get(i).getId().equals(id)) {
-					index =  i;
-					vertexNotFound = false;
-				}	
-			}
+	public int getInDegree(Vertex vertex) {
+		ArrayList<Edge> edges = incomingArcs.get(vertex);
+		return edges == null ? 0 : edges.size();
+	}
+	
+	/**
+	 * Returns the targets of all arcs leaving a vertex. A successor connected by several arcs is contained several times.
+	 *
+	 * @param vertex The source vertex.
+	 * @return Returns the successors of the vertex.
+	 */
+	public List<Vertex> getSuccessors(Vertex vertex) {
+		List<Edge> edges = getOutgoingArcs(vertex);
+		List<Vertex> successors = new ArrayList<Vertex>(edges.size());
+		for (int i = 0, n = edges.size(); i < n; i++) {
+			successors.add(edges.get(i).getTarget());
 		}
-		return index;
+		return successors;
 	}
 	
 	/**
-	 * Determines the start node (source place) of a labeled workflow net.
+	 * Returns the sources of all arcs entering a vertex. A predecessor connected by several arcs is contained several times.
 	 *
-	 * @param targetArcIDs The target IDs in arcs.
-	 */	
-	private void determineStartNode(HashSet<String> targetArcIDs) {
-		String id = null;
-		for (int i = 0, n = this.getPlaces().size(); i < n; i++) {
-			if ( targetArcIDs.contains(this.getPlaces().get(i).getId()) ) {
-				id = null;
-			}
-			else {
-				// start node ID found
-				id = this.getPlaces().get(i).getId();
-				// exit loop
-				i = n;
-			}
+	 * @param vertex The target vertex.
+	 * @return Returns the predecessors of the vertex.
+	 */
+	public List<Vertex> getPredecessors(Vertex vertex) {
+		List<Edge> edges = getIncomingArcs(vertex);
+		List<Vertex> predecessors = new ArrayList<Vertex>(edges.size());
+		for (int i = 0, n = edges.size(); i < n; i++) {
+			predecessors.add(edges.get(i).getSource());
 		}
-		startNode = id;
+		return predecessors;
 	}
 	
 	/**
-	 * Determines the end node (sink place) of a labeled workflow net.
+	 * Looks up the arcs of a vertex in an adjacency map.
 	 *
-	 * @param sourceArcIDs The source IDs in arcs.
-	 */	
-	private void determineEndNode(HashSet<String> sourceArcIDs) {
-		String id = null;
-		for (int i = 0, n = this.getPlaces().size(); i < n; i++) {
-			if ( sourceArcIDs.contains(this.getPlaces().get(i).getId()) ) {
-				id = null;
-			}
-			else {
-				// end node ID found
-				id = this.getPlaces().get(i).getId();
-				// exit loop
-				i = n;
-			}
+	 * @param adjacency The adjacency map.
+	 * @param vertex The vertex.
+	 * @return Returns an unmodifiable view of the arcs, an empty list if there are none.
+	 */
+	private List<Edge> adjacentArcs(HashMap<Vertex, ArrayList<Edge>> adjacency, Vertex vertex) {
+		ArrayList<Edge> edges = adjacency.get(vertex);
+		if (edges == null)
+			return Collections.<Edge>emptyList();
+		return Collections.unmodifiableList(edges);
+	}
+	
+	/**
+	 * Adds an arc to the adjacency lists of its source and target vertex.
+	 *
+	 * @param arc The arc to index.
+	 */
+	private void indexArc(Edge arc) {
+		ArrayList<Edge> outgoing = outgoingArcs.get(arc.getSource());
+		if (outgoing == null) {
+			outgoing = new ArrayList<Edge>(2);
+			outgoingArcs.put(arc.getSource(), outgoing);
 		}
-		endNode = id;
+		outgoing.add(arc);
+		
+		ArrayList<Edge> incoming = incomingArcs.get(arc.getTarget());
+		if (incoming == null) {
+			incoming = new ArrayList<Edge>(2);
+			incomingArcs.put(arc.getTarget(), incoming);
+		}
+		incoming.add(arc);
 	}
 	
 	/**
@@ -238,12 +330,13 @@ public class PetriNet {
 	}
 	
 	/**
-	 * Adds an arc to arcs.
+	 * Adds an arc to arcs and to the adjacency lists of its source and target vertex.
 	 * 
 	 * @param arc The arc to add to arcs.
 	 */
 	public void addArc(Arc arc) {
 		this.arcs.add(arc);
+		indexArc(arc);
 	}
 	
 	/**
@@ -256,12 +349,18 @@ public class PetriNet {
 	}
 
 	/**
-	 * Adds a vertex node of the workflow net to vertices.
+	 * Adds a vertex node of the workflow net to vertices and indexes it by its ID. Malformed PNML files may contain several vertices
+	 * with the same ID. They are all added to vertices, but as in former versions, the ID refers to the vertex added last, and a
+	 * warning is printed.
 	 * 
 	 * @param vertex The vertex to add to vertices.
 	 */
 	public void addVertex(Vertex vertex) {
+		if (vertexIndex.containsKey(vertex.getId()))
+			System.out.println("The net " + pnmlFileName + " contains more than one place or transition with the ID " 
+					+ vertex.getId() + ". The last one is used.");
 		this.vertices.add(vertex);
+		this.vertexIndex.put(vertex.getId(), vertex);
 	}
 
 	/* Getter and setter methods */
@@ -292,6 +391,11 @@ public class PetriNet {
 
 	public void setArcs(ArrayList<Edge> arcs) {
 		this.arcs = arcs;
+		this.outgoingArcs.clear();
+		this.incomingArcs.clear();
+		for (int i = 0, n = arcs.size(); i < n; i++) {
+			indexArc(arcs.get(i));
+		}
 	}
 
 	public String getPnmlFile() {
@@ -0,0 +1,202 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+package de.andreasschoknecht.PetriNet;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import de.andreasschoknecht.Preprocessing.WordFactory;
+import semilar.data.Word;
+
+/**
+ * The class PetriNetSnapshot writes a parsed and preprocessed labeled workflow net in a compact binary format and restores it, such
+ * that neither the PNML file has to be parsed nor the transitions have to be preprocessed again.
+ *
+ * A snapshot contains the places, the transitions with their preprocessed labels, arc counts and distances to the source and sink
+ * place, and the arcs. The PNML file path and name are not stored, as they belong to the location of a net rather than its content.
+ */
+public class PetriNetSnapshot {
+
+	/** Identifies the format of snapshots. Snapshots of another version are not restored. */
+	public static final int FORMAT_VERSION = 2;
+
+	/**
+	 * Writes a snapshot of a preprocessed labeled workflow net.
+	 *
+	 * @param net The preprocessed labeled workflow net.
+	 * @param out The stream to write the snapshot to.
+	 * @throws IOException Signals that the snapshot could not be written.
+	 */
+	public void write(PetriNet net, DataOutputStream out) throws IOException {
+		out.writeInt(FORMAT_VERSION);
+
+		out.writeInt(net.getPlaces().size());
+		for (Place place: net.getPlaces()) {
+			writeString(out, place.getId());
+			writeString(out, place.getLabel());
+		}
+
+		out.writeInt(net.getTransitions().size());
+		for (Transition transition: net.getTransitions()) {
+			writeString(out, transition.getId());
+			writeString(out, transition.getLabel());
+			out.writeInt(transition.getIncomingArcs());
+			out.writeInt(transition.getOutgoingArcs());
+			out.writeInt(transition.getDistanceStart());
+			out.writeInt(transition.getDistanceEnd());
+
+			ArrayList<Word> words = transition.getPreProcLabel();
+			out.writeInt(words.size());
+			for (Word word: words) {
+				writeString(out, word.getRawForm());
+				writeString(out, word.getBaseForm());
+				out.writeBoolean(word.isIsStopWord());
+			}
+		}
+
+		out.writeInt(net.getArcs().size());
+		for (Edge arc: net.getArcs()) {
+			writeString(out, arc.getId());
+			writeString(out, arc.getSource().getId());
+			writeString(out, arc.getTarget().getId());
+			out.writeInt(arc.getWeight());
+		}
+	}
+
+	/**
+	 * Restores a labeled workflow net from a snapshot. The whole snapshot is read before the net is changed, so the net stays empty
+	 * if the snapshot cannot be read. Counts and string lengths exceeding the length of the snapshot are rejected as damaged before
+	 * anything is allocated for them.
+	 *
+	 * @param net The empty labeled workflow net to restore.
+	 * @param in The stream to read the snapshot from.
+	 * @param length The length of the snapshot in bytes.
+	 * @throws IOException Signals that the snapshot could not be read, is damaged or has another format version.
+	 */
+	public void read(PetriNet net, DataInputStream in, long length) throws IOException {
+		int version = in.readInt();
+		if (version != FORMAT_VERSION)
+			throw new IOException("Unsupported snapshot format version " + version + ".");
+
+		int amountOfPlaces = readCount(in, length);
+		ArrayList<Place> places = new ArrayList<Place>(amountOfPlaces);
+		for (int i = 0; i < amountOfPlaces; i++) {
+			Place place = new Place();
+			place.setId(readString(in, length));
+			place.setLabel(readString(in, length));
+			places.add(place);
+		}
+
+		int amountOfTransitions = readCount(in, length);
+		ArrayList<Transition> transitions = new ArrayList<Transition>(amountOfTransitions);
+		for (int i = 0; i < amountOfTransitions; i++) {
+			Transition transition = new Transition();
+			transition.setId(readString(in, length));
+			transition.setLabel(readString(in, length));
+			transition.setIncomingArcs(in.readInt());
+			transition.setOutgoingArcs(in.readInt());
+			transition.setDistanceStart(in.readInt());
+			transition.setDistanceEnd(in.readInt());
+			transition.calculateRelativePosition();
+
+			int amountOfWords = readCount(in, length);
+			ArrayList<Word> words = new ArrayList<Word>(amountOfWords);
+			for (int j = 0; j < amountOfWords; j++) {
+				String rawForm = readString(in, length);
+				String baseForm = readString(in, length);
+				words.add( WordFactory.createWord(rawForm, baseForm, in.readBoolean()) );
+			}
+			transition.setPreProcLabel(words);
+			transitions.add(transition);
+		}
+
+		HashSet<String> ids = new HashSet<String>();
+		for (Place place: places) {
+			ids.add(place.getId());
+		}
+		for (Transition transition: transitions) {
+			ids.add(transition.getId());
+		}
+
+		int amountOfArcs = readCount(in, length);
+		String[][] arcs = new String[amountOfArcs][];
+		int[] weights = new int[amountOfArcs];
+		for (int i = 0; i < amountOfArcs; i++) {
+			arcs[i] = new String[] {readString(in, length), readString(in, length), readString(in, length)};
+			weights[i] = in.readInt();
+			if (!ids.contains(arcs[i][1]) || !ids.contains(arcs[i][2]))
+				throw new IOException("The snapshot contains an arc connecting unknown vertices.");
+		}
+
+		/* Add the elements to the net */
+		/*----------------------------------------*/
+		for (Place place: places) {
+			net.addPlace(place);
+			net.addVertex(place);
+		}
+
+		for (Transition transition: transitions) {
+			net.addTransition(transition);
+			net.addVertex(transition);
+		}
+
+		for (int i = 0; i < amountOfArcs; i++) {
+			Arc arc = new Arc();
+			arc.setId(arcs[i][0]);
+			arc.setSource( net.getVertex(arcs[i][1]) );
+			arc.setTarget( net.getVertex(arcs[i][2]) );
+			arc.setWeight(weights[i]);
+			net.addArc(arc);
+		}
+		/*----------------------------------------*/
+	}
+
+	/**
+	 * Writes a string as the number of its UTF-8 bytes, -1 for null, followed by the bytes. Unlike writeUTF, this does not limit the
+	 * length of the string.
+	 */
+	private void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private String readString(DataInputStream in, long snapshotLength) throws IOException {
+		int length = in.readInt();
+		if (length < -1 || length > snapshotLength)
+			throw new IOException("The snapshot contains a string of invalid length " + length + ".");
+		if (length == -1)
+			return null;
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads a number of places, transitions, words or arcs. Each of them takes at least one byte of the snapshot, so a number which
+	 * is negative or exceeds the length of the snapshot means that the snapshot is damaged.
+	 */
+	private int readCount(DataInputStream in, long snapshotLength) throws IOException {
+		int count = in.readInt();
+		if (count < 0 || count > snapshotLength)
+			throw new IOException("The snapshot contains an invalid count " + count + ".");
+		return count;
+	}
+
+}
@@ -13,6 +13,7 @@ package de.andreasschoknecht.PetriNet;
 
 import java.util.ArrayList;
 
+import de.andreasschoknecht.Helpers.TokenDictionary;
 import semilar.data.Word;
 
 
@@ -34,6 +35,22 @@ public class Transition implements Vertex{
 	 */
 	private ArrayList<Word> preProcLabel;
 	
+	/** 
+	 * The raw forms of the words of the preprocessed label in lower case and their IDs in the token dictionary they have been
+	 * interned into. They are null if the words have not been interned since the preprocessed label has been set.
+	 */
+	private char[][] lowerCaseWords;
+	private int[] wordIds;
+	private TokenDictionary wordDictionary;
+	
+	/** 
+	 * The indices of the words of the preprocessed label in a store of word vectors and the object which has provided them, so that
+	 * a matcher can check whether they are indices of its own vectors. They are null if no indices have been set since the
+	 * preprocessed label has been set.
+	 */
+	private int[] wordVectorIndices;
+	private Object wordVectorSource;
+	
 	/** The distances from a transition to the source place and the sink place of a of a labeled workflow net. */
 	private int distanceStart, distanceEnd;
 	
@@ -50,6 +67,25 @@ public class Transition implements Vertex{
 		this.relativePosition = (float) ( this.getDistanceStart() / (float) (this.getDistanceStart() + this.getDistanceEnd()) );;
 	}
 	
+	/**
+	 * Interns the raw forms of the words of the preprocessed label in lower case into a token dictionary. Afterwards, the matchers
+	 * can compare the words by their IDs and lower case characters without creating strings for every pair of words.
+	 * 
+	 * @param dictionary The token dictionary, which is usually shared by all transitions of a corpus.
+	 */
+	public void internWords(TokenDictionary dictionary) {
+		char[][] words = new char[preProcLabel.size()][];
+		int[] ids = new int[words.length];
+		for (int i = 0; i < words.length; i++) {
+			String word = preProcLabel.get(i).getRawForm().toLowerCase();
+			words[i] = word.toCharArray();
+			ids[i] = dictionary.intern(word);
+		}
+		this.lowerCaseWords = words;
+		this.wordIds = ids;
+		this.wordDictionary = dictionary;
+	}
+	
 	/* Getter and setter methods */
 	/* ------------------------- */
 	public String getLabel() {
@@ -110,6 +146,37 @@ public class Transition implements Vertex{
 
 	public void setPreProcLabel(ArrayList<Word> preProcLabel) {
 		this.preProcLabel = preProcLabel;
+		this.lowerCaseWords = null;
+		this.wordIds = null;
+		this.wordDictionary = null;
+		this.wordVectorIndices = null;
+		this.wordVectorSource = null;
+	}
+
+	public char[][] getLowerCaseWords() {
+		return lowerCaseWords;
+	}
+
+	public int[] getWordIds() {
+		return wordIds;
+	}
+
+	public TokenDictionary getWordDictionary() {
+		return wordDictionary;
+	}
+
+	public Object getWordVectorSource() {
+		return wordVectorSource;
+	}
+
+	public int[] getWordVectorIndices() {
+		return wordVectorIndices;
+	}
+
+	/** Sets the indices of the words of the preprocessed label in the store of vectors of the object which has provided them. */
+	public void setWordVectorIndices(Object wordVectorSource, int[] wordVectorIndices) {
+		this.wordVectorSource = wordVectorSource;
+		this.wordVectorIndices = wordVectorIndices;
 	}
 	/* ------------------------- */
 }
@@ -0,0 +1,214 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.Preprocessing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import semilar.data.Word;
+
+/**
+ * The class CachingLabelPreprocessor remembers the words of every label preprocessed by another label preprocessor. Labels which
+ * occur repeatedly in a corpus are therefore preprocessed only once. The cache can be shared by all labeled workflow nets and threads
+ * of a run and can be saved to and loaded from a file, such that later runs skip the preprocessing of known labels.
+ */
+public class CachingLabelPreprocessor implements LabelPreprocessor {
+
+	/** Identifies the file format of saved caches. */
+	private static final int FILE_FORMAT_VERSION = 3;
+
+	/** The label preprocessor used for labels which are not cached yet. */
+	private final LabelPreprocessor preprocessor;
+
+	/** The cached words per label. */
+	private final Map<String, List<Word>> cache = new ConcurrentHashMap<String, List<Word>>();
+
+	/**
+	 * Instantiates a new caching label preprocessor.
+	 *
+	 * @param preprocessor the label preprocessor used for labels which are not cached yet
+	 */
+	public CachingLabelPreprocessor(LabelPreprocessor preprocessor) {
+		this.preprocessor = preprocessor;
+	}
+
+	@Override
+	public ArrayList<Word> preprocess(String label) {
+		List<Word> words = cache.get(label);
+		if (words == null) {
+			words = preprocessor.preprocess(label);
+			cache.put(label, words);
+		}
+		// Return a copy, such that callers cannot change the cached list.
+		return new ArrayList<Word>(words);
+	}
+
+	/**
+	 * Returns the configuration identifier of the label preprocessor used for labels which are not cached yet, as the cached labels
+	 * have been preprocessed by it.
+	 */
+	@Override
+	public String getConfigurationId() {
+		return preprocessor.getConfigurationId();
+	}
+
+	/**
+	 * Loads cached labels from a file written by save. The file is ignored if it has been written for another kind or configuration
+	 * of label preprocessor or is incomplete. Labels already contained in the cache are kept.
+	 *
+	 * @param file The file to load.
+	 * @return Returns true if the file has been loaded, false if it has been written for another label preprocessor configuration or
+	 * is incomplete.
+	 * @throws IOException Signals that the file could not be read.
+	 */
+	public boolean load(File file) throws IOException {
+		long fileLength = file.length();
+		Map<String, List<Word>> labels = new HashMap<String, List<Word>>();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != FILE_FORMAT_VERSION || !readString(in, fileLength).equals(getConfigurationId()))
+				return false;
+
+			// Read the whole file first, so an incomplete file does not add any label.
+			for (int i = 0, n = readCount(in, fileLength); i < n; i++) {
+				String label = readString(in, fileLength);
+				int amountOfWords = readCount(in, fileLength);
+				ArrayList<Word> words = new ArrayList<Word>(amountOfWords);
+				for (int j = 0; j < amountOfWords; j++) {
+					String rawForm = readString(in, fileLength);
+					String baseForm = in.readBoolean() ? readString(in, fileLength) : null;
+					words.add( WordFactory.createWord(rawForm, baseForm, in.readBoolean()) );
+				}
+				labels.put(label, words);
+			}
+		} catch (EOFException e) {
+			// The file has not been written completely, e.g. because a run has been killed while saving.
+			return false;
+		} finally {
+			in.close();
+		}
+
+		for (Map.Entry<String, List<Word>> entry: labels.entrySet()) {
+			if (!cache.containsKey(entry.getKey()))
+				cache.put(entry.getKey(), entry.getValue());
+		}
+		return true;
+	}
+
+	/**
+	 * Saves all cached labels to a file. Only the raw form, the base form and the stop word flag of the words are stored. The labels
+	 * are written to a temporary file first, which then replaces the file, such that the file is never left incomplete.
+	 *
+	 * @param file The file to write.
+	 * @throws IOException Signals that the file could not be written.
+	 */
+	public void save(File file) throws IOException {
+		// Take a snapshot, as other threads may add labels while saving.
+		List<Map.Entry<String, List<Word>>> entries = new ArrayList<Map.Entry<String, List<Word>>>(cache.entrySet());
+
+		File tempFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				out.writeInt(FILE_FORMAT_VERSION);
+				writeString(out, getConfigurationId());
+				out.writeInt(entries.size());
+				for (Map.Entry<String, List<Word>> entry: entries) {
+					writeString(out, entry.getKey());
+					out.writeInt(entry.getValue().size());
+					for (Word word: entry.getValue()) {
+						writeString(out, word.getRawForm());
+						out.writeBoolean(word.getBaseForm() != null);
+						if (word.getBaseForm() != null)
+							writeString(out, word.getBaseForm());
+						out.writeBoolean(word.isIsStopWord());
+					}
+				}
+			} finally {
+				out.close();
+			}
+
+			try {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	/**
+	 * Writes a string as the number of its UTF-8 bytes followed by the bytes. Unlike writeUTF, this does not limit the length of the
+	 * string.
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a string written by writeString. A length which is negative or exceeds the length of the file means that the file is
+	 * damaged, which is treated like an incomplete file.
+	 */
+	private static String readString(DataInputStream in, long fileLength) throws IOException {
+		byte[] bytes = new byte[readCount(in, fileLength)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads a number of labels, words or bytes. Each of them takes at least one byte of the file, so a number which is negative or
+	 * exceeds the length of the file means that the file is damaged, which is treated like an incomplete file.
+	 */
+	private static int readCount(DataInputStream in, long fileLength) throws IOException {
+		int count = in.readInt();
+		if (count < 0 || count > fileLength)
+			throw new EOFException("Invalid count " + count + ".");
+		return count;
+	}
+
+	/**
+	 * Removes all cached labels.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public LabelPreprocessor getPreprocessor() {
+		return preprocessor;
+	}
+
+	public int getAmountOfCachedLabels() {
+		return cache.size();
+	}
+	/* ------------------------- */
+}
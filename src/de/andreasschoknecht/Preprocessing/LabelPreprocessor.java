@@ -0,0 +1,40 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.Preprocessing;
+
+import java.util.ArrayList;
+
+import semilar.data.Word;
+
+/**
+ * The interface LabelPreprocessor represents an abstraction level for the different ways of preprocessing transition labels. 
+ * Implementations have to be thread-safe, as one preprocessor is shared by all labeled workflow nets of a corpus.
+ */
+public interface LabelPreprocessor {
+	
+	/**
+	 * Preprocesses a transition label. Stop words are flagged, but not removed.
+	 * 
+	 * @param label The transition label to preprocess.
+	 * @return Returns the words of the label.
+	 */
+	public ArrayList<Word> preprocess(String label);
+	
+	/**
+	 * Returns a string identifying the kind and the configuration of the preprocessor, e.g. its stop word list. Preprocessed labels 
+	 * stored by an earlier run are only reused if the identifiers of both runs are equal.
+	 * 
+	 * @return Returns the configuration identifier.
+	 */
+	public String getConfigurationId();
+
+}
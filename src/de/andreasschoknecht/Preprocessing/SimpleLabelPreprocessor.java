@@ -0,0 +1,164 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.Preprocessing;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import de.andreasschoknecht.Helpers.PorterStemmer;
+import semilar.data.Word;
+
+/**
+ * The class SimpleLabelPreprocessor is a lightweight alternative to the StanfordLabelPreprocessor. It tokenizes a label at
+ * whitespace and punctuation, converts the tokens to lower case, stems them with the Porter stemmer and flags stop words contained
+ * in a stop word list. No tagger or parser models are needed.
+ *
+ * For the short activity labels of process models, the resulting tokens equal those of the Stanford pipeline in nearly all cases.
+ * Hyphens and apostrophes inside a word are kept as in the Stanford tokenizer, and a possessive 's is split off as its own token.
+ */
+public class SimpleLabelPreprocessor implements LabelPreprocessor {
+
+	/** The default stop word list, which is also used by the Semilar API. */
+	public static final String DEFAULT_STOP_WORD_FILE = "stop-words.txt";
+
+	/** The stop words in lower case. */
+	private final Set<String> stopWords;
+
+	/** Identifies this class and the stop word list. */
+	private final String configurationId;
+
+	/** The stemmer for calculating the base forms of words. */
+	private final PorterStemmer stemmer = new PorterStemmer();
+
+	/**
+	 * Instantiates a new simple label preprocessor using the stop word list stop-words.txt in the working directory.
+	 *
+	 * @throws IOException Signals that the stop word list could not be read.
+	 */
+	public SimpleLabelPreprocessor() throws IOException {
+		this(new File(DEFAULT_STOP_WORD_FILE));
+	}
+
+	/**
+	 * Instantiates a new simple label preprocessor.
+	 *
+	 * @param stopWordFile A file containing one stop word per line.
+	 * @throws IOException Signals that the stop word list could not be read.
+	 */
+	public SimpleLabelPreprocessor(File stopWordFile) throws IOException {
+		stopWords = new HashSet<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(stopWordFile), StandardCharsets.UTF_8));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.length() > 0)
+					stopWords.add(line.toLowerCase());
+			}
+		} finally {
+			reader.close();
+		}
+		configurationId = getClass().getName() + ":" + hashStopWords(stopWords);
+	}
+
+	@Override
+	public ArrayList<Word> preprocess(String label) {
+		ArrayList<Word> words = new ArrayList<Word>();
+		String text = label.toLowerCase().replace('\u2019', '\'');
+		int i = 0, n = text.length();
+
+		while (i < n) {
+			// Skip whitespace and punctuation.
+			if (!Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+				continue;
+			}
+
+			// A token ends at whitespace or punctuation, except for hyphens and apostrophes followed by a letter or digit.
+			int start = i;
+			while (i < n && (Character.isLetterOrDigit(text.charAt(i))
+					|| (isInnerSymbol(text.charAt(i)) && i + 1 < n && Character.isLetterOrDigit(text.charAt(i + 1))))) {
+				i++;
+			}
+			String token = text.substring(start, i);
+
+			if (token.endsWith("'s") && token.length() > 2) {
+				addWord(words, token.substring(0, token.length() - 2));
+				addWord(words, "'s");
+			} else
+				addWord(words, token);
+		}
+
+		return words;
+	}
+
+	@Override
+	public String getConfigurationId() {
+		return configurationId;
+	}
+
+	/**
+	 * Calculates a hash of a stop word list, which does not depend on the order of the words.
+	 *
+	 * @param stopWords The stop words.
+	 * @return Returns the SHA-256 hash of the sorted stop words as hexadecimal string.
+	 */
+	private static String hashStopWords(Set<String> stopWords) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform has to support SHA-256.
+			throw new IllegalStateException(e);
+		}
+		for (String stopWord: new TreeSet<String>(stopWords)) {
+			digest.update( (stopWord + "\n").getBytes(StandardCharsets.UTF_8) );
+		}
+
+		StringBuilder hash = new StringBuilder(64);
+		for (byte b: digest.digest()) {
+			hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hash.toString();
+	}
+
+	/**
+	 * Checks whether a character may occur inside a token.
+	 *
+	 * @param c The character to check.
+	 * @return Returns true for hyphens and apostrophes.
+	 */
+	private boolean isInnerSymbol(char c) {
+		return c == '-' || c == '\'';
+	}
+
+	/**
+	 * Creates a word for a token and adds it to a list of words.
+	 *
+	 * @param words The list of words.
+	 * @param token The token in lower case.
+	 */
+	private void addWord(ArrayList<Word> words, String token) {
+		words.add( WordFactory.createWord(token, stemmer.stem(token), stopWords.contains(token)) );
+	}
+
+}
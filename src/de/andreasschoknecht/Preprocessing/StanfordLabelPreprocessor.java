@@ -0,0 +1,75 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.Preprocessing;
+
+import java.util.ArrayList;
+
+import semilar.data.Sentence;
+import semilar.data.Word;
+import semilar.tools.preprocessing.SentencePreprocessor;
+
+/**
+ * The class StanfordLabelPreprocessor preprocesses transition labels with the Semilar API (see 
+ * http://deeptutor2.memphis.edu/Semilar-Web/index.jsp) using the Stanford tokenizer, tagger and parser as well as the Porter stemmer.
+ * 
+ * Creating a SentencePreprocessor loads the Stanford models, which is expensive. Therefore, each thread using this class creates
+ * exactly one SentencePreprocessor and reuses it for all labels it preprocesses.
+ */
+public class StanfordLabelPreprocessor implements LabelPreprocessor {
+	
+	/** The instance used by labeled workflow nets which are preprocessed without an explicitly given preprocessor. */
+	private static StanfordLabelPreprocessor defaultInstance;
+	
+	/** The tools of the Semilar API used for preprocessing. */
+	private static final SentencePreprocessor.TokenizerType TOKENIZER = SentencePreprocessor.TokenizerType.STANFORD;
+	private static final SentencePreprocessor.TaggerType TAGGER = SentencePreprocessor.TaggerType.STANFORD;
+	private static final SentencePreprocessor.StemmerType STEMMER = SentencePreprocessor.StemmerType.PORTER;
+	private static final SentencePreprocessor.ParserType PARSER = SentencePreprocessor.ParserType.STANFORD;
+	
+	/** The SentencePreprocessor of each thread. */
+	private final ThreadLocal<SentencePreprocessor> preprocessors = new ThreadLocal<SentencePreprocessor>() {
+		@Override
+		protected SentencePreprocessor initialValue() {
+			return new SentencePreprocessor(TOKENIZER, TAGGER, STEMMER, PARSER);
+		}
+	};
+	
+	/**
+	 * Returns the shared default instance, which is created on first use.
+	 * 
+	 * @return Returns the default StanfordLabelPreprocessor.
+	 */
+	public static synchronized StanfordLabelPreprocessor getDefaultInstance() {
+		if (defaultInstance == null)
+			defaultInstance = new StanfordLabelPreprocessor();
+		return defaultInstance;
+	}
+
+	@Override
+	public ArrayList<Word> preprocess(String label) {
+		Sentence sentence = preprocessors.get().preprocessSentence(label);
+		return sentence.getWords();
+	}
+	
+	@Override
+	public String getConfigurationId() {
+		return getClass().getName() + ":" + TOKENIZER + "," + TAGGER + "," + STEMMER + "," + PARSER;
+	}
+	
+	/**
+	 * Releases the SentencePreprocessor of the calling thread. It is created again if the thread preprocesses another label.
+	 */
+	public void release() {
+		preprocessors.remove();
+	}
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.Preprocessing;
+
+import semilar.data.Word;
+
+/**
+ * The class WordFactory creates Semilar word objects for label preprocessors which do not use the Semilar preprocessing pipeline.
+ */
+public class WordFactory {
+	
+	/**
+	 * Creates a word.
+	 * 
+	 * @param rawForm The word as it occurs in the label.
+	 * @param baseForm The stem of the word.
+	 * @param isStopWord Whether the word is a stop word.
+	 * @return Returns the new word.
+	 */
+	public static Word createWord(String rawForm, String baseForm, boolean isStopWord) {
+		Word word = new Word();
+		word.setRawForm(rawForm);
+		word.setBaseForm(baseForm);
+		word.setIsStopWord(isStopWord);
+		return word;
+	}
+
+}
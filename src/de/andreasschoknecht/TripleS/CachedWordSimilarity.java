@@ -0,0 +1,336 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.TripleS;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class CachedWordSimilarity remembers the similarities computed by another word similarity metric, such that pairs of words
+ * occurring repeatedly in a corpus are only passed to the metric once. As the similarity is symmetric, both orders of a pair share
+ * one entry.
+ *
+ * The cache holds a bounded number of pairs. It is divided into stripes with an own lock each, so threads looking up different pairs
+ * rarely wait for each other. If a stripe is full, a pair is evicted according to the eviction policy. The similarities are computed
+ * without holding a lock. The cache can be saved to and loaded from a file, such that later runs do not compute known pairs again.
+ */
+public class CachedWordSimilarity implements WordSimilarityMetric {
+
+	/** The order in which pairs are evicted from a full cache. */
+	public enum EvictionPolicy {
+		/** Evicts the pair which has not been looked up for the longest time. */
+		LRU,
+		/** Evicts the pair which has been added first. */
+		FIFO
+	}
+
+	/** Identifies the file format of saved caches. */
+	private static final int FILE_FORMAT_VERSION = 2;
+
+	/** The number of bits selecting a stripe and the number of stripes. */
+	private static final int STRIPE_BITS = 5, STRIPES = 1 << STRIPE_BITS;
+
+	/** The metric used for pairs which are not cached yet. */
+	private final WordSimilarityMetric metric;
+
+	/** The maximum number of pairs per stripe. */
+	private final int stripeCapacity;
+
+	/** The eviction policy of the cache. */
+	private final EvictionPolicy evictionPolicy;
+
+	/** The stripes of the cache. Each stripe is only accessed while holding its lock. */
+	private final Stripe[] stripes = new Stripe[STRIPES];
+
+	/** The number of lookups which found or did not find a similarity. */
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+	/**
+	 * Instantiates a new cached word similarity.
+	 *
+	 * @param metric the metric used for pairs which are not cached yet
+	 * @param capacity the maximum number of cached pairs, which is rounded up to a multiple of the number of stripes
+	 * @param evictionPolicy the order in which pairs are evicted from a full cache
+	 * @throws IllegalArgumentException if the capacity is smaller than 1.
+	 */
+	public CachedWordSimilarity(WordSimilarityMetric metric, int capacity, EvictionPolicy evictionPolicy) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("The capacity must be at least 1 but was " + capacity + ".");
+		this.metric = metric;
+		this.evictionPolicy = evictionPolicy;
+		this.stripeCapacity = (capacity - 1) / STRIPES + 1;
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new Stripe(stripeCapacity, evictionPolicy == EvictionPolicy.LRU);
+		}
+	}
+
+	@Override
+	public float computeWordSimilarity(String word1, String word2) {
+		WordPair pair = new WordPair(word1, word2);
+		Stripe stripe = stripeOf(pair);
+
+		Float similarity;
+		synchronized (stripe) {
+			similarity = stripe.get(pair);
+		}
+		if (similarity != null) {
+			hits.increment();
+			return similarity;
+		}
+
+		misses.increment();
+		// Another thread may compute the same pair meanwhile, which only costs time.
+		float computed = metric.computeWordSimilarity(word1, word2);
+		synchronized (stripe) {
+			stripe.put(pair, computed);
+		}
+		return computed;
+	}
+
+	/**
+	 * Loads cached pairs from a file written by save. The file is ignored if it has been written for another kind of metric or is
+	 * incomplete. Pairs already contained in the cache are kept. If the file contains more pairs than the cache can hold, pairs are
+	 * evicted.
+	 *
+	 * @param file The file to load.
+	 * @return Returns true if the file has been loaded, false if it has been written for another metric or is incomplete.
+	 * @throws IOException Signals that the file could not be read.
+	 */
+	public boolean load(File file) throws IOException {
+		List<WordPair> pairs = new ArrayList<WordPair>();
+		List<Float> similarities = new ArrayList<Float>();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != FILE_FORMAT_VERSION || !metric.getClass().getName().equals(readString(in)))
+				return false;
+
+			// Read the whole file first, so an incomplete file does not add any pair.
+			for (int i = 0, n = in.readInt(); i < n; i++) {
+				pairs.add(new WordPair(readString(in), readString(in)));
+				similarities.add(in.readFloat());
+			}
+		} catch (EOFException e) {
+			// The file has not been written completely, e.g. because a run has been killed while saving.
+			return false;
+		} finally {
+			in.close();
+		}
+
+		for (int i = 0; i < pairs.size(); i++) {
+			Stripe stripe = stripeOf(pairs.get(i));
+			synchronized (stripe) {
+				if (!stripe.containsKey(pairs.get(i)))
+					stripe.put(pairs.get(i), similarities.get(i));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Saves all cached pairs to a file. The pairs are written to a temporary file first, which then replaces the file, such that the
+	 * file is never left incomplete.
+	 *
+	 * @param file The file to write.
+	 * @throws IOException Signals that the file could not be written.
+	 */
+	public void save(File file) throws IOException {
+		// Take a snapshot, as other threads may add pairs while saving.
+		List<Map.Entry<WordPair, Float>> entries = new ArrayList<Map.Entry<WordPair, Float>>();
+		for (Stripe stripe: stripes) {
+			synchronized (stripe) {
+				entries.addAll( new LinkedHashMap<WordPair, Float>(stripe).entrySet() );
+			}
+		}
+
+		File tempFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				out.writeInt(FILE_FORMAT_VERSION);
+				writeString(out, metric.getClass().getName());
+				out.writeInt(entries.size());
+				for (Map.Entry<WordPair, Float> entry: entries) {
+					writeString(out, entry.getKey().word1);
+					writeString(out, entry.getKey().word2);
+					out.writeFloat(entry.getValue());
+				}
+			} finally {
+				out.close();
+			}
+
+			try {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	/**
+	 * Writes a string as the number of its UTF-8 bytes followed by the bytes. Unlike writeUTF, this does not limit the length of the
+	 * string.
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a string written by writeString. A negative length means that the file is damaged, which is treated like an incomplete
+	 * file.
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			throw new EOFException("Invalid string length " + length + ".");
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Removes all cached pairs and resets the hit and miss counters.
+	 */
+	public void clear() {
+		for (Stripe stripe: stripes) {
+			synchronized (stripe) {
+				stripe.clear();
+			}
+		}
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * Returns the stripe responsible for a pair of words. The stripe is selected by the high bits of the multiplicatively hashed
+	 * hash code, as the hash codes of short words differ mostly in their low bits.
+	 */
+	private Stripe stripeOf(WordPair pair) {
+		return stripes[(pair.hashCode() * 0x9E3779B9) >>> (32 - STRIPE_BITS)];
+	}
+
+	/**
+	 * Returns the share of lookups which found a similarity.
+	 *
+	 * @return Returns the hit rate between 0 and 1, or 0 if there has not been any lookup.
+	 */
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public WordSimilarityMetric getMetric() {
+		return metric;
+	}
+
+	public EvictionPolicy getEvictionPolicy() {
+		return evictionPolicy;
+	}
+
+	public int getCapacity() {
+		return stripeCapacity * STRIPES;
+	}
+
+	public int getAmountOfCachedPairs() {
+		int amount = 0;
+		for (Stripe stripe: stripes) {
+			synchronized (stripe) {
+				amount += stripe.size();
+			}
+		}
+		return amount;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+	/* ------------------------- */
+
+	/**
+	 * A stripe of the cache, which evicts its eldest pair when its capacity is exceeded. With access order, the eldest pair is the
+	 * least recently used one, otherwise the first one added.
+	 */
+	private static class Stripe extends LinkedHashMap<WordPair, Float> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		private Stripe(int capacity, boolean accessOrder) {
+			super(16, 0.75f, accessOrder);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<WordPair, Float> eldest) {
+			return size() > capacity;
+		}
+	}
+
+	/**
+	 * An unordered pair of words. The words are stored in lexicographic order, such that both orders of a pair are equal.
+	 */
+	private static final class WordPair {
+
+		private final String word1, word2;
+
+		private WordPair(String word1, String word2) {
+			if (word1.compareTo(word2) <= 0) {
+				this.word1 = word1;
+				this.word2 = word2;
+			} else {
+				this.word1 = word2;
+				this.word2 = word1;
+			}
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof WordPair))
+				return false;
+			WordPair pair = (WordPair) other;
+			return word1.equals(pair.word1) && word2.equals(pair.word2);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * word1.hashCode() + word2.hashCode();
+		}
+	}
+
+}
@@ -11,13 +11,33 @@
 
 package de.andreasschoknecht.TripleS;
 
-import de.andreasschoknecht.Helpers.LevenshteinDistanceCalculator;
+import de.andreasschoknecht.Helpers.LabelDistanceCalculator;
+import de.andreasschoknecht.Helpers.LevenshteinCache;
 import de.andreasschoknecht.MatchingManager.Match;
 
 /**
  * The class SyntacticMatcher calculates the syntactic score of two transitions based on their labels.
  */
 public class SyntacticMatcher {
+	
+	/** The calculator for the similarities of labels, which can be shared by threads. */
+	private final LabelDistanceCalculator labelCalculator;
+	
+	/**
+	 * Instantiates a new syntactic matcher without a cache.
+	 */
+	public SyntacticMatcher() {
+		this(null);
+	}
+	
+	/**
+	 * Instantiates a new syntactic matcher looking up the distances between words in a cache first.
+	 *
+	 * @param cache the cache for the distances between words or null for computing all distances
+	 */
+	public SyntacticMatcher(LevenshteinCache cache) {
+		this.labelCalculator = new LabelDistanceCalculator(cache);
+	}
 		
 	/**
 	 * Calculates the syntactic distance between two transition labels.
@@ -25,24 +45,25 @@ public class SyntacticMatcher {
 	 * @param match The match object for similarity calculation.
 	 */
 	public void match(Match match) {
-		// Array for the Levenshtein distance results.
-		float[][] distances = new float[match.getTransition1().getPreProcLabel().size()][match.getTransition2().getPreProcLabel().size()];
-		
-		LevenshteinDistanceCalculator levCalculator = new LevenshteinDistanceCalculator();
-		
-		for (int i = 0, n = match.getTransition1().getPreProcLabel().size(); i < n; i++) {
-			for (int j = 0, m = match.getTransition2().getPreProcLabel().size(); j < m; j++) {
-
-				distances[i][j] = levCalculator.computeLevenshteinDistance( match.getTransition1().getPreProcLabel().get(i).getRawForm().toLowerCase(), 
-						match.getTransition2().getPreProcLabel().get(j).getRawForm().toLowerCase() );
-				
-			}
-		}
-		
-		int maxNumberWords = Math.max(distances.length, distances[0].length);
-		float totalDistance = levCalculator.calculateMinDistance(distances);
-		float synSimilarity = totalDistance / maxNumberWords;
-		match.setSyntacticSimilarity( 1 - synSimilarity );		
+		match(match, Float.NEGATIVE_INFINITY);
+	}
+	
+	/**
+	 * Calculates the syntactic similarity between two transition labels if it is at least minSimilarity. If the similarity is below
+	 * minSimilarity, a value which is also below minSimilarity but may be smaller than the exact similarity is set.
+	 * 
+	 * @param match The match object for similarity calculation.
+	 * @param minSimilarity The minimum syntactic similarity of interest.
+	 * @see LabelDistanceCalculator#computeSimilarity
+	 */
+	public void match(Match match, float minSimilarity) {
+		match.setSyntacticSimilarity( labelCalculator.computeSimilarity(match.getTransition1(), match.getTransition2(), minSimilarity) );
 	}
 	
+	/* Getter methods */
+	/* ------------------------- */
+	public LevenshteinCache getCache() {
+		return labelCalculator.getCache();
+	}
+	/* ------------------------- */
 }
@@ -13,7 +13,10 @@ package de.andreasschoknecht.TripleS;
 
 import java.util.ArrayList;
 
+import de.andreasschoknecht.Helpers.LevenshteinCache;
 import de.andreasschoknecht.MatchingManager.Match;
+import de.andreasschoknecht.MatchingManager.MatchResult;
+import de.andreasschoknecht.MatchingManager.ProcessModelMatcher;
 import de.andreasschoknecht.PetriNet.PetriNet;
 import semilar.tools.semantic.WordNetSimilarity;
 import semilar.wordmetrics.WNWordMetric;
@@ -23,7 +26,7 @@ import semilar.wordmetrics.WNWordMetric;
  * The class TripleS can be used to calculate the similarity between the transitions of two labeled workflow nets accoring
  * to the Triple-S algorithm.
  */
-public class TripleS {
+public class TripleS implements ProcessModelMatcher {
 	
 	/** The weights and thresholds for parameterizing the Triple-S algorithm. */
 	private float syntacticWeight, semanticWeight, structuralArcWeight, structuralPositionWeight, threshold;
@@ -31,28 +34,87 @@ public class TripleS {
 	/** The matches calculated by the Triple-S algorithm. */
 	private ArrayList<Match> matches;
 	
-	/** The labeled workflow nets to be matched. */
+	/** The labeled workflow nets to be matched by startMatching. */
 	private PetriNet net1, net2;
 	
-	/** A WNWordMetric object for calculating the Wu & Palmer similarity of words. */
-	WNWordMetric wnMetricWup;
-	private final boolean wnFirstSenseOnly = false;
+	/** 
+	 * The matchers for the single similarity dimensions. They do not hold any state except for thread-safe caches and can be used by
+	 * several threads.
+	 */
+	private SyntacticMatcher synMatcher = new SyntacticMatcher();
+	private final SemanticMatcher semMatcher = new SemanticMatcher();
+	private final StructuralMatcher strucMatcher = new StructuralMatcher();
+	
+	/** 
+	 * Whether the syntactic similarity is only calculated exactly if the match can reach the threshold. Pairs which cannot reach it
+	 * get a lower syntactic similarity, which does not change the matches found.
+	 */
+	private boolean boundedSyntacticMatching = false;
+	
+	/**
+	 * The metric for calculating the Wu & Palmer similarity of words. It is thread-safe and can be shared by several TripleS
+	 * matchers.
+	 */
+	private final WordSimilarityMetric wordSimilarity;
+	private static final boolean wnFirstSenseOnly = false;
 
+	/**
+	 * Instantiates a new TripleS object creating a WNWordMetric object for each thread using it.
+	 */
 	public TripleS() {
-		matches = new ArrayList<Match>();	
-		wnMetricWup = new WNWordMetric(WordNetSimilarity.WNSimMeasure.WUP, wnFirstSenseOnly);	
+		this(new WNWordSimilarity());
 	}
 	
 	/**
-	 * Starts the matching process of two labeled workflow net and calculates the final matches.
+	 * Instantiates a new TripleS object using a given WNWordMetric object. The metric is used by the first thread running the 
+	 * matcher, while further threads create WNWordMetric objects of their own.
+	 *
+	 * @param wnMetricWup the WNWordMetric object for calculating the Wu & Palmer similarity of words
+	 */
+	public TripleS(WNWordMetric wnMetricWup) {
+		this(new WNWordSimilarity(wnMetricWup));
+	}
+	
+	/**
+	 * Instantiates a new TripleS object using a given word similarity metric, e.g. a CachedWordSimilarity in front of a 
+	 * WNWordSimilarity.
+	 *
+	 * @param wordSimilarity the thread-safe metric for calculating the Wu & Palmer similarity of words
+	 */
+	public TripleS(WordSimilarityMetric wordSimilarity) {
+		matches = new ArrayList<Match>();
+		this.wordSimilarity = wordSimilarity;
+	}
+	
+	/**
+	 * Creates a WNWordMetric object calculating the Wu & Palmer similarity as used by the Triple-S algorithm.
+	 *
+	 * @return Returns the new WNWordMetric object.
+	 */
+	public static WNWordMetric createWordMetric() {
+		return new WNWordMetric(WordNetSimilarity.WNSimMeasure.WUP, wnFirstSenseOnly);
+	}
+	
+	/**
+	 * Starts the matching process of the labeled workflow nets set by setNet1 and setNet2 and adds the final matches to the list
+	 * of matches.
+	 */
+	public void startMatching() {
+		matches.addAll( match(net1, net2).getMatches() );
+	}
+	
+	/**
+	 * Matches two labeled workflow nets and calculates the final matches. This method does not change the state of the matcher and
+	 * can therefore be called by several threads at the same time.
 	 * 
 	 * @param net1 Represents the first labeled workflow net to match.
 	 * @param net2 Represents the second labeled workflow net to match.
+	 * @return Returns the matches found between the two labeled workflow nets.
 	 */
-	public void startMatching() {
-		SyntacticMatcher synMatcher = new SyntacticMatcher();
-		SemanticMatcher semMatcher = new SemanticMatcher();
-		StructuralMatcher strucMatcher = new StructuralMatcher();
+	@Override
+	public MatchResult match(PetriNet net1, PetriNet net2) {
+		ArrayList<Match> foundMatches = new ArrayList<Match>();
+		float minSyntacticSimilarity = minSyntacticSimilarity();
 		
 		for (int i = 0, n = net1.getTransitions().size(); i < n; i++){
 			for (int j = 0, m = net2.getTransitions().size(); j < m; j++){
@@ -63,7 +125,7 @@ public class TripleS {
 										
 					if ( !match.getTransition1().getLabel().equalsIgnoreCase(match.getTransition2().getLabel()) ) {
 						// Perform syntactic matching
-						synMatcher.match(match);
+						synMatcher.match(match, minSyntacticSimilarity);
 					}
 					else {
 						match.setSyntacticSimilarity(1.0f);
@@ -71,7 +133,7 @@ public class TripleS {
 										
 					if (match.getSyntacticSimilarity() != 1.0f) {
 						// Perform semantic matching
-						semMatcher.match(match, wnMetricWup);
+						semMatcher.match(match, wordSimilarity);
 					}
 					else {
 						match.setSemanticSimilarity(1.0f);
@@ -87,10 +149,24 @@ public class TripleS {
 							match.getStructuralPositionSimilarity() * structuralPositionWeight);
 					
 					if ( match.getSimilarityValue() >= threshold)
-						matches.add(match);
+						foundMatches.add(match);
 				}
 			}
 		}
+		
+		return new MatchResult(net1, net2, foundMatches);
+	}
+
+	/**
+	 * Calculates the lowest syntactic similarity with which a pair of transitions can still reach the threshold, given that the
+	 * semantic and structural similarities are at most 1.
+	 *
+	 * @return Returns the minimum syntactic similarity or negative infinity if the syntactic similarity is to be calculated exactly.
+	 */
+	private float minSyntacticSimilarity() {
+		if (!boundedSyntacticMatching || syntacticWeight <= 0 || semanticWeight < 0 || structuralArcWeight < 0 || structuralPositionWeight < 0)
+			return Float.NEGATIVE_INFINITY;
+		return (threshold - semanticWeight - structuralArcWeight - structuralPositionWeight) / syntacticWeight;
 	}
 
 	/* Getter and setter methods */
@@ -154,5 +230,26 @@ public class TripleS {
 	public void setNet2(PetriNet net2) {
 		this.net2 = net2;
 	}
+
+	public WordSimilarityMetric getWordSimilarity() {
+		return wordSimilarity;
+	}
+
+	public LevenshteinCache getLevenshteinCache() {
+		return synMatcher.getCache();
+	}
+
+	/** Sets the cache for the distances between words used for syntactic matching, null for not using a cache. */
+	public void setLevenshteinCache(LevenshteinCache levenshteinCache) {
+		this.synMatcher = new SyntacticMatcher(levenshteinCache);
+	}
+
+	public boolean isBoundedSyntacticMatching() {
+		return boundedSyntacticMatching;
+	}
+
+	public void setBoundedSyntacticMatching(boolean boundedSyntacticMatching) {
+		this.boundedSyntacticMatching = boundedSyntacticMatching;
+	}
 	/* ------------------------- */
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.TripleS;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import semilar.wordmetrics.WNWordMetric;
+
+/**
+ * The class WNWordSimilarity computes the similarity of words with WNWordMetric objects of the Semilar API. As a WNWordMetric is not
+ * safe for concurrent use, every thread computes the similarities with a WNWordMetric object of its own, which is created by
+ * TripleS.createWordMetric when the thread first needs it. This way, several matcher threads can share one WNWordSimilarity object
+ * without waiting for each other.
+ */
+public class WNWordSimilarity implements WordSimilarityMetric {
+
+	/** A WNWordMetric object which has been passed to the constructor and is handed over to the first thread needing a metric. */
+	private final AtomicReference<WNWordMetric> initialMetric;
+
+	/** The WNWordMetric object of each thread. */
+	private final ThreadLocal<WNWordMetric> wordMetric = new ThreadLocal<WNWordMetric>() {
+		@Override
+		protected WNWordMetric initialValue() {
+			WNWordMetric metric = initialMetric.getAndSet(null);
+			return metric != null ? metric : TripleS.createWordMetric();
+		}
+	};
+
+	/**
+	 * Instantiates a new WNWordSimilarity object creating a WNWordMetric object for each thread.
+	 */
+	public WNWordSimilarity() {
+		this.initialMetric = new AtomicReference<WNWordMetric>();
+	}
+
+	/**
+	 * Instantiates a new WNWordSimilarity object. The given WNWordMetric object is used by the first thread computing a similarity,
+	 * while further threads get WNWordMetric objects of their own. The metric must therefore not be used elsewhere at the same time.
+	 *
+	 * @param wordMetric the WNWordMetric object used by the first thread
+	 */
+	public WNWordSimilarity(WNWordMetric wordMetric) {
+		this.initialMetric = new AtomicReference<WNWordMetric>(wordMetric);
+	}
+
+	@Override
+	public float computeWordSimilarity(String word1, String word2) {
+		return (float) wordMetric.get().computeWordSimilarityNoPos(word1, word2);
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	/** Returns the WNWordMetric object of the calling thread. */
+	public WNWordMetric getWordMetric() {
+		return wordMetric.get();
+	}
+	/* ------------------------- */
+}
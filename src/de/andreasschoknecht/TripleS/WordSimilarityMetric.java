@@ -0,0 +1,29 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.TripleS;
+
+/**
+ * The interface WordSimilarityMetric represents a measure for the semantic similarity of two words, such as the similarity defined
+ * by Wu and Palmer. Implementations are used by several matcher threads at the same time and therefore have to be thread-safe.
+ */
+public interface WordSimilarityMetric {
+
+	/**
+	 * Computes the semantic similarity of two words regardless of their part of speech. The similarity has to be symmetric.
+	 *
+	 * @param word1 The first word.
+	 * @param word2 The second word.
+	 * @return Returns the similarity between and including 0 and 1.
+	 */
+	public float computeWordSimilarity(String word1, String word2);
+
+}
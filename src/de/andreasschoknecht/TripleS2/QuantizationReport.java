@@ -0,0 +1,156 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.TripleS2;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import de.andreasschoknecht.MatchingManager.CorpusLoader;
+import de.andreasschoknecht.MatchingManager.Match;
+import de.andreasschoknecht.PetriNet.PetriNet;
+import de.andreasschoknecht.PetriNet.Transition;
+import de.andreasschoknecht.Preprocessing.SimpleLabelPreprocessor;
+import de.andreasschoknecht.WordVectors.CompactWordVectorExtractor;
+import de.andreasschoknecht.WordVectors.CompactWordVectors;
+import de.andreasschoknecht.WordVectors.QuantizedWordVectors;
+import de.andreasschoknecht.WordVectors.WordVectorSimilarity;
+
+/**
+ * The class QuantizationReport compares the semantic similarities of the Triple-S2 approach computed with quantized word vectors to
+ * the semantic similarities computed with the original word vectors. It calculates the semantic similarity of every pair of
+ * transitions of every pair of nets of a corpus both ways and reports the deviations, so that it can be decided whether the quantized
+ * vectors are precise enough for a corpus.
+ */
+public class QuantizationReport {
+
+	/** Deviations of semantic similarities above this value are counted separately. */
+	private static final float NOTABLE_DEVIATION = 0.01f;
+
+	/** The number of compared pairs of transitions and the number of pairs with a notable deviation. */
+	private long amountOfPairs, notablePairs;
+
+	/** The sum of the deviations, the sum of the squared deviations and the maximum deviation. */
+	private double deviationSum, squaredDeviationSum, maxDeviation;
+
+	/**
+	 * Reports the deviations of the semantic similarities of a corpus caused by quantizing the word vectors.
+	 *
+	 * Usage: QuantizationReport vectors corpus [simple]. The vectors are a compact word vector file written by the
+	 * CompactWordVectorExtractor. With the option simple, labels are preprocessed without the Stanford tools.
+	 *
+	 * @param args the path of the compact word vector file, the path of the corpus and optionally simple
+	 * @throws IOException Signals that the vectors or the corpus could not be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: QuantizationReport <compact word vector file> <corpus> [simple]");
+			System.exit(1);
+		}
+
+		CompactWordVectors vectors = CompactWordVectors.load(new File(args[0]));
+		CorpusLoader corpusLoader = new CorpusLoader();
+		if (args.length > 2 && args[2].equals("simple"))
+			corpusLoader.setLabelPreprocessor(new SimpleLabelPreprocessor());
+		List<PetriNet> nets = corpusLoader.load(new File(args[1]));
+
+		QuantizedWordVectors quantizedVectors = new QuantizedWordVectors(vectors, CompactWordVectorExtractor.collectVocabulary(nets));
+		quantizedVectors.attach(nets);
+
+		QuantizationReport report = new QuantizationReport();
+		report.compare(nets, vectors, quantizedVectors);
+
+		System.out.println("Memory of the vectors: " + 4L * vectors.getDimensions() * vectors.getAmountOfWords()
+				+ " bytes, quantized: " + quantizedVectors.getVectorBytes() + " bytes");
+		System.out.println("Compared pairs of transitions: " + report.getAmountOfPairs());
+		System.out.println("Mean deviation: " + report.getMeanDeviation());
+		System.out.println("Root mean square deviation: " + report.getRootMeanSquareDeviation());
+		System.out.println("Maximum deviation: " + report.getMaxDeviation());
+		System.out.println("Pairs with a deviation above " + NOTABLE_DEVIATION + ": " + report.getNotablePairs());
+	}
+
+	/**
+	 * Compares the semantic similarities of all pairs of transitions of all pairs of nets computed with the original and the
+	 * quantized word vectors and adds the deviations to the report. Pairs with an undefined similarity are skipped: if a transition
+	 * has no word with a vector, all word similarities are NaN and both ways yield a semantic similarity of 0, which would count as
+	 * an agreement.
+	 *
+	 * @param nets The preprocessed labeled workflow nets.
+	 * @param vectors The original word vectors.
+	 * @param quantizedVectors The quantized word vectors.
+	 */
+	public void compare(List<PetriNet> nets, WordVectorSimilarity vectors, QuantizedWordVectors quantizedVectors) {
+		SemanticMatcher semMatcher = new SemanticMatcher();
+		for (int i = 0; i < nets.size(); i++) {
+			for (int j = i + 1; j < nets.size(); j++) {
+				for (Transition transition1: nets.get(i).getTransitions()) {
+					if (!hasWordWithVector(transition1, quantizedVectors))
+						continue;
+					for (Transition transition2: nets.get(j).getTransitions()) {
+						if (!hasWordWithVector(transition2, quantizedVectors))
+							continue;
+						Match match = new Match(transition1, transition2);
+						Match quantizedMatch = new Match(transition1, transition2);
+						semMatcher.match(match, vectors);
+						semMatcher.match(quantizedMatch, quantizedVectors);
+						add(match.getSemanticSimilarity(), quantizedMatch.getSemanticSimilarity());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether a word of the preprocessed label of a transition has a quantized vector. Transitions with an empty label have no
+	 * such word.
+	 */
+	private boolean hasWordWithVector(Transition transition, QuantizedWordVectors quantizedVectors) {
+		for (int index: quantizedVectors.getWordIndices(transition)) {
+			if (index >= 0)
+				return true;
+		}
+		return false;
+	}
+
+	private void add(float similarity, float quantizedSimilarity) {
+		double deviation = Math.abs(similarity - quantizedSimilarity);
+		amountOfPairs++;
+		deviationSum += deviation;
+		squaredDeviationSum += deviation * deviation;
+		maxDeviation = Math.max(maxDeviation, deviation);
+		if (deviation > NOTABLE_DEVIATION)
+			notablePairs++;
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public long getAmountOfPairs() {
+		return amountOfPairs;
+	}
+
+	public long getNotablePairs() {
+		return notablePairs;
+	}
+
+	public double getMeanDeviation() {
+		return amountOfPairs == 0 ? 0 : deviationSum / amountOfPairs;
+	}
+
+	public double getRootMeanSquareDeviation() {
+		return amountOfPairs == 0 ? 0 : Math.sqrt(squaredDeviationSum / amountOfPairs);
+	}
+
+	public double getMaxDeviation() {
+		return maxDeviation;
+	}
+	/* ------------------------- */
+}
@@ -13,8 +13,11 @@ package de.andreasschoknecht.TripleS2;
 
 import org.deeplearning4j.models.word2vec.Word2Vec;
 
-import de.andreasschoknecht.Helpers.ArrayAdaptor;
+import de.andreasschoknecht.Helpers.GreedyAssignment;
 import de.andreasschoknecht.MatchingManager.Match;
+import de.andreasschoknecht.WordVectors.Word2VecSimilarity;
+import de.andreasschoknecht.WordVectors.WordSimilarityMatrix;
+import de.andreasschoknecht.WordVectors.WordVectorSimilarity;
 
 /**
  * The class SemanticMatcher calculates the semantic similarity of two transition labels according to the Triple-S2 approach.
@@ -28,6 +31,16 @@ public class SemanticMatcher {
 	 * @param vec The Word2Vec object for word similarity calculation.
 	 */
 	protected void match(Match match, Word2Vec vec) {
+		match(match, new Word2VecSimilarity(vec));
+	}
+	
+	/**
+	 * Calculates the semantic similarity between two transition labels based on the similarities of word vectors.
+	 *
+	 * @param match The match object for similarity calculation.
+	 * @param vectors The word vectors for word similarity calculation.
+	 */
+	protected void match(Match match, WordVectorSimilarity vectors) {
 		
 		int m = match.getTransition1().getPreProcLabel().size();
 		int n = match.getTransition2().getPreProcLabel().size();
@@ -35,76 +48,51 @@ public class SemanticMatcher {
 		// Array for the semantic similarity results.
 		float[][] similarities = new float[m][n];
 		
-		for (int i = 0; i < m; i++) {
-			for (int j = 0; j < n; j++) {
-				// Calculate Word2Vec-based similarity values of transition labels
-				similarities[i][j] = (float) vec.similarity(match.getTransition1().getPreProcLabel().get(i).getRawForm(), 
-						match.getTransition2().getPreProcLabel().get(j).getRawForm());
+		int[] indices1 = vectors.getWordIndices(match.getTransition1());
+		int[] indices2 = indices1 == null ? null : vectors.getWordIndices(match.getTransition2());
+		if (indices2 != null) {
+			// Compare the words by their indices, which are usually attached to the transitions
+			for (int i = 0; i < m; i++) {
+				for (int j = 0; j < n; j++) {
+					similarities[i][j] = vectors.similarity(indices1[i], indices2[j]);
+				}
+			}
+		} else {
+			for (int i = 0; i < m; i++) {
+				for (int j = 0; j < n; j++) {
+					// Calculate Word2Vec-based similarity values of transition labels
+					similarities[i][j] = vectors.similarity(match.getTransition1().getPreProcLabel().get(i).getRawForm(), 
+							match.getTransition2().getPreProcLabel().get(j).getRawForm());
+				}
 			}
 		}
 		
-		int maxNumberWords = Math.max(similarities.length, similarities[0].length);
-		float totalSimilarity = calculateMaxSimilarity(similarities);
-		float semScore = totalSimilarity / maxNumberWords;
-		
-		match.setSemanticSimilarity( semScore );
+		setSemanticSimilarity(match, similarities);
 	}
-
+	
 	/**
-	 * Calculates the greedy maximum similarity between two transition labels words normalized on the interval [0,1].
-	 * 
-	 * @param similarities The Word2Vec similarities between the transitions labels words.
-	 * @return Returns the maximum similarity (between and including 0 and 1).
+	 * Calculates the semantic similarity between two transition labels based on the similarities of their words read from the
+	 * similarity matrix of the words of two labeled workflow nets.
+	 *
+	 * @param match The match object for similarity calculation.
+	 * @param similarityMatrix The similarity matrix of the nets containing the transitions of the match.
 	 */
-	private float calculateMaxSimilarity(float[][] similarities) {
-		
-		float totalSimilarity = 0, maximum = 0;
-		int row = 0, column = 0;
-		
-		if (similarities.length == 1) { // end case 1 of recursion
-			// if there is only one row left: find minimum and add remaining number of columns (represents distances of 1 of these words compared to other transition name tokens)
-			for (int i = 0; i < similarities.length; i++) {
-				for (int j = 0; j < similarities[i].length; j++) {
-					if (similarities[i][j] > maximum) {
-						maximum = similarities[i][j];
-					}
-				}
-			}
-			// update total distance. -1 as the number of columns might be greater than the number of rows and only one column is eliminated.
-			totalSimilarity = maximum;
-			
-		} else if (similarities[0].length == 1) { // end case 2 of recursion
-			// if there is only one column left: find minimum and add remaining number of rows (represents distances of 1 of these words compared to other transition name tokens)
-			for (int i = 0; i < similarities.length; i++) {
-				for (int j = 0; j < similarities[i].length; j++) {
-					if (similarities[i][j] > maximum) {
-						maximum = similarities[i][j];
-					}
-				}
-			}
-			// update total distance. -1 as the number of rows might be greater than the number of columns and only one column is eliminated.
-			totalSimilarity = maximum;
-			
-		}
-		else if (similarities.length != 1 && similarities[0].length != 1) {
-			// find minimum in distances array.
-			for (int i = 0; i < similarities.length; i++) {
-				for (int j = 0; j < similarities[i].length; j++) {
-					if (similarities[i][j] > maximum) {
-						maximum = similarities[i][j];
-						row = i;
-						column = j;
-					}
-				}
-			}
-			// adapt array.
-			float[][] adaptedArray = ArrayAdaptor.adaptArray(similarities, row, column);
-			
-			// update total distance.
-			totalSimilarity = maximum + calculateMaxSimilarity(adaptedArray);
-		}
+	protected void match(Match match, WordSimilarityMatrix similarityMatrix) {
+		setSemanticSimilarity(match, similarityMatrix.getSimilarities(match.getTransition1(), match.getTransition2()));
+	}
+	
+	/**
+	 * Sets the semantic similarity of a match to the maximum similarity of an assignment of the words of the transition labels.
+	 *
+	 * @param match The match object for similarity calculation.
+	 * @param similarities The similarities of all pairs of words of the transition labels.
+	 */
+	private void setSemanticSimilarity(Match match, float[][] similarities) {
+		int maxNumberWords = Math.max(similarities.length, similarities[0].length);
+		float totalSimilarity = GreedyAssignment.maximumSimilarity(similarities);
+		float semScore = totalSimilarity / maxNumberWords;
 		
-		return totalSimilarity;
+		match.setSemanticSimilarity( semScore );
 	}
 
 }
@@ -15,14 +15,21 @@ import java.util.ArrayList;
 
 import org.deeplearning4j.models.word2vec.Word2Vec;
 
+import de.andreasschoknecht.Helpers.LevenshteinCache;
 import de.andreasschoknecht.MatchingManager.Match;
+import de.andreasschoknecht.MatchingManager.MatchResult;
+import de.andreasschoknecht.MatchingManager.ProcessModelMatcher;
 import de.andreasschoknecht.PetriNet.PetriNet;
+import de.andreasschoknecht.WordVectors.NormalizedWordVectors;
+import de.andreasschoknecht.WordVectors.Word2VecSimilarity;
+import de.andreasschoknecht.WordVectors.WordSimilarityMatrix;
+import de.andreasschoknecht.WordVectors.WordVectorSimilarity;
 
 
 /**
  * The class TripleS2 contains methods for running the Triple-S2 matching approach. Additionally, the list of calculated matches can be retrieved.
  */
-public class TripleS2 {
+public class TripleS2 implements ProcessModelMatcher {
 	
 	/** The weights and thresholds for parameterizing the Triple-S2 algorithm. */
 	private float syntacticWeight, semanticWeight, structuralWeightsyn, structuralWeightsem, thresholdsyn, thresholdsem;
@@ -30,11 +37,36 @@ public class TripleS2 {
 	/** The matches calculated by the Triple-S2 algorithm. */
 	private ArrayList<Match> matches;
 		
-	/** The labeled workflow nets to be matched. */
+	/** The labeled workflow nets to be matched by startMatching. */
 	private PetriNet net1, net2;
 	
-	/** The Word2Vec object for calculating semantic similarity of words according to the Word2Vec idea. */
-	private Word2Vec vec;
+	/** 
+	 * The matchers for the single similarity dimensions. They do not hold any state except for thread-safe caches and can be used by
+	 * several threads.
+	 */
+	private SyntacticMatcher synMatcher = new SyntacticMatcher();
+	private final SemanticMatcher semMatcher = new SemanticMatcher();
+	private final StructuralMatcher strucMatcher = new StructuralMatcher();
+	
+	/** 
+	 * Whether the syntactic similarity is only calculated exactly if it can reach the syntactic threshold. Pairs which cannot reach
+	 * it get a lower syntactic similarity, which does not change the matches found. Matches found by semantic matching get their
+	 * exact syntactic similarity calculated again, so all matches found report their exact syntactic similarity.
+	 */
+	private boolean boundedSyntacticMatching = false;
+	
+	/** 
+	 * Whether the similarities of all pairs of words of two nets are computed at once as a WordSimilarityMatrix when the first pair
+	 * of transitions needs semantic matching. This is only possible with NormalizedWordVectors; other word vectors, e.g.
+	 * QuantizedWordVectors, are still compared pair by pair.
+	 */
+	private boolean similarityMatrixMatching = false;
+	
+	/** 
+	 * The word vectors for calculating semantic similarity of words according to the Word2Vec idea. They are only read during
+	 * matching and can therefore be shared by several TripleS2 matchers.
+	 */
+	private final WordVectorSimilarity vectors;
 
 	/**
 	 * Instantiates a new TripleS2 object.
@@ -42,17 +74,41 @@ public class TripleS2 {
 	 * @param vec the Word2Vec object for calculating semantic similarity between words
 	 */
 	public TripleS2(Word2Vec vec) {
+		this(new Word2VecSimilarity(vec));
+	}
+	
+	/**
+	 * Instantiates a new TripleS2 object using any source of word vectors, e.g. CompactWordVectors holding only the words of the
+	 * corpus.
+	 *
+	 * @param vectors the word vectors for calculating semantic similarity between words
+	 */
+	public TripleS2(WordVectorSimilarity vectors) {
 		matches = new ArrayList<Match>();
-		this.vec = vec;
+		this.vectors = vectors;
 	}
 	
 	/**
-	 * Starts the matching process of two Petri Nets and calculates the final matches.
+	 * Starts the matching process of the Petri Nets set by setNet1 and setNet2 and adds the final matches to the list of matches.
 	 */
 	public void startMatching(){
-		SyntacticMatcher synMatcher = new SyntacticMatcher();
-		SemanticMatcher semMatcher = new SemanticMatcher();
-		StructuralMatcher strucMatcher = new StructuralMatcher();
+		matches.addAll( match(net1, net2).getMatches() );
+	}
+	
+	/**
+	 * Matches two Petri Nets and calculates the final matches. This method does not change the state of the matcher and can 
+	 * therefore be called by several threads at the same time.
+	 *
+	 * @param net1 Represents the first labeled workflow net to match.
+	 * @param net2 Represents the second labeled workflow net to match.
+	 * @return Returns the matches found between the two Petri Nets.
+	 */
+	@Override
+	public MatchResult match(PetriNet net1, PetriNet net2) {
+		ArrayList<Match> foundMatches = new ArrayList<Match>();
+		float minSyntacticSimilarity = minSyntacticSimilarity();
+		boolean useSimilarityMatrix = similarityMatrixMatching && vectors instanceof NormalizedWordVectors;
+		WordSimilarityMatrix similarityMatrix = null;
 		
 		for (int i = 0, n = net1.getTransitions().size(); i < n; i++){
 			for (int j = 0, m = net2.getTransitions().size(); j < m; j++){
@@ -65,7 +121,7 @@ public class TripleS2 {
 					/*----------------------------------------*/
 					if ( !match.getTransition1().getLabel().equalsIgnoreCase(match.getTransition2().getLabel()) ) {
 						// Perform syntactic matching
-						synMatcher.match(match);
+						synMatcher.match(match, minSyntacticSimilarity);
 					}
 					else {
 						match.setSyntacticSimilarity(1.0f);
@@ -80,20 +136,28 @@ public class TripleS2 {
 					// Perform semantic match evaluation only if similarity value is not above or equal to syntactic theshold
 					if ( synStrucSim >= thresholdsyn) {
 						match.setSimilarityValue(synStrucSim);
-						matches.add(match);
+						foundMatches.add(match);
 					} else {
 						
 						/* Perform semantic + structural match evaluation */
 						/*----------------------------------------*/
 						// Perform semantic matching
-						semMatcher.match(match, vec);
+						if (useSimilarityMatrix) {
+							if (similarityMatrix == null)
+								similarityMatrix = new WordSimilarityMatrix((NormalizedWordVectors) vectors, net1, net2);
+							semMatcher.match(match, similarityMatrix);
+						} else
+							semMatcher.match(match, vectors);
 						
 						// Calculate semantic similarity value
 						float semStrucSim =	match.getSemanticSimilarity() * semanticWeight + match.getStructuralPositionSimilarity() * structuralWeightsem;
 						
 						if ( semStrucSim >= thresholdsem) {
+							// A bounded syntactic similarity below the minimum may be lower than the exact one.
+							if (match.getSyntacticSimilarity() < minSyntacticSimilarity)
+								synMatcher.match(match);
 							match.setSimilarityValue(semStrucSim);
-							matches.add(match);
+							foundMatches.add(match);
 						} else 
 							match.setSimilarityValue(0);
 						/*----------------------------------------*/
@@ -101,6 +165,20 @@ public class TripleS2 {
 				}
 			}
 		}
+		
+		return new MatchResult(net1, net2, foundMatches);
+	}
+
+	/**
+	 * Calculates the lowest syntactic similarity with which a pair of transitions can still reach the syntactic threshold, given
+	 * that the structural similarity is at most 1.
+	 *
+	 * @return Returns the minimum syntactic similarity or negative infinity if the syntactic similarity is to be calculated exactly.
+	 */
+	private float minSyntacticSimilarity() {
+		if (!boundedSyntacticMatching || syntacticWeight <= 0 || structuralWeightsyn < 0)
+			return Float.NEGATIVE_INFINITY;
+		return (thresholdsyn - structuralWeightsyn) / syntacticWeight;
 	}
 
 	/* Getter and setter methods */
@@ -172,5 +250,38 @@ public class TripleS2 {
 	public void setThresholdsem(float thresholdsem) {
 		this.thresholdsem = thresholdsem;
 	}
+
+	public WordVectorSimilarity getVectors() {
+		return vectors;
+	}
+
+	public LevenshteinCache getLevenshteinCache() {
+		return synMatcher.getCache();
+	}
+
+	/** Sets the cache for the distances between words used for syntactic matching, null for not using a cache. */
+	public void setLevenshteinCache(LevenshteinCache levenshteinCache) {
+		this.synMatcher = new SyntacticMatcher(levenshteinCache);
+	}
+
+	public boolean isBoundedSyntacticMatching() {
+		return boundedSyntacticMatching;
+	}
+
+	public void setBoundedSyntacticMatching(boolean boundedSyntacticMatching) {
+		this.boundedSyntacticMatching = boundedSyntacticMatching;
+	}
+
+	public boolean isSimilarityMatrixMatching() {
+		return similarityMatrixMatching;
+	}
+
+	/** 
+	 * Sets whether the word similarities of a pair of nets are computed at once as a similarity matrix. The setting has no effect
+	 * unless the word vectors are NormalizedWordVectors.
+	 */
+	public void setSimilarityMatrixMatching(boolean similarityMatrixMatching) {
+		this.similarityMatrixMatching = similarityMatrixMatching;
+	}
 	/* ------------------------- */
 }
\ No newline at end of file
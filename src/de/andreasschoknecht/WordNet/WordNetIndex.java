@@ -0,0 +1,425 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.WordNet;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.andreasschoknecht.TripleS.WordSimilarityMetric;
+
+/**
+ * The class WordNetIndex holds the noun and verb hypernym hierarchies of WordNet in primitive arrays and computes the Wu & Palmer
+ * similarity of words with a few array operations. It is built once from the files of a local WordNet dictionary directory
+ * (index.noun, index.verb, data.noun, data.verb and optionally noun.exc and verb.exc) and can then be used by all matcher threads of
+ * a run as an alternative to the WNWordMetric of the Semilar API.
+ *
+ * Every synset gets a dense int ID. For each synset, the IDs of all its hypernyms, including itself and instance hypernyms, are
+ * stored in ascending order together with the length of the shortest path to them. The common subsumers of two synsets are therefore
+ * found by merging two sorted arrays. As the verb hierarchy consists of several trees, all verb roots share a virtual root.
+ *
+ * The similarity of two synsets s1 and s2 having the common subsumer c is 2 * depth(c) / (d(s1, c) + d(s2, c) + 2 * depth(c)), where
+ * depth(c) is the number of synsets on the longest path from c to a root and d the shortest path length. The best common subsumer is
+ * used. The similarity of two words is the maximum over all noun and verb senses of both words, in line with wnFirstSenseOnly =
+ * false of the TripleS matcher. Words are reduced to their base forms with the exception lists and detachment rules of WordNet.
+ * The values follow the usual definition of the measure, but may deviate slightly from those of the Semilar API.
+ */
+public class WordNetIndex implements WordSimilarityMetric {
+
+	/** The suffixes which are replaced to find the base forms of nouns and verbs, each followed by its replacement. */
+	private static final String[] NOUN_RULES = {"s", "", "ses", "s", "xes", "x", "zes", "z", "ches", "ch", "shes", "sh", "men", "man",
+			"ies", "y"};
+	private static final String[] VERB_RULES = {"s", "", "ies", "y", "es", "e", "es", "", "ed", "e", "ed", "", "ing", "e", "ing", ""};
+
+	/** The ancestors of each synset: offsets per synset ID, ancestor IDs in ascending order and the shortest distance to them. */
+	private final int[] ancestorOffsets, ancestors, ancestorDistances;
+
+	/** The number of synsets on the longest path from each synset to its root, counting both. */
+	private final int[] depths;
+
+	/** The synset IDs of the noun and verb senses of each lemma, in the order of the index files. */
+	private final Map<String, int[]> nounSenses, verbSenses;
+
+	/** The base forms of irregular nouns and verbs. */
+	private final Map<String, String[]> nounExceptions, verbExceptions;
+
+	/** The synset IDs of the senses of the words looked up so far, which saves the base form reduction for repeated words. */
+	private final ConcurrentHashMap<String, int[]> wordSenses = new ConcurrentHashMap<String, int[]>();
+
+	/**
+	 * Instantiates a new WordNet index from parsed hypernym relations.
+	 *
+	 * @param hypernyms The hypernym IDs of each synset.
+	 * @param nounSenses The noun senses of each lemma.
+	 * @param verbSenses The verb senses of each lemma.
+	 * @param nounExceptions The base forms of irregular nouns.
+	 * @param verbExceptions The base forms of irregular verbs.
+	 */
+	private WordNetIndex(int[][] hypernyms, Map<String, int[]> nounSenses, Map<String, int[]> verbSenses,
+			Map<String, String[]> nounExceptions, Map<String, String[]> verbExceptions) {
+		this.nounSenses = nounSenses;
+		this.verbSenses = verbSenses;
+		this.nounExceptions = nounExceptions;
+		this.verbExceptions = verbExceptions;
+
+		int n = hypernyms.length;
+		int[][] ancestorIds = new int[n][];
+		int[][] distances = new int[n][];
+		depths = new int[n];
+		boolean[] visiting = new boolean[n];
+		for (int id = 0; id < n; id++) {
+			computeAncestors(id, hypernyms, ancestorIds, distances, visiting);
+		}
+
+		ancestorOffsets = new int[n + 1];
+		for (int id = 0; id < n; id++) {
+			ancestorOffsets[id + 1] = ancestorOffsets[id] + ancestorIds[id].length;
+		}
+		ancestors = new int[ancestorOffsets[n]];
+		ancestorDistances = new int[ancestorOffsets[n]];
+		for (int id = 0; id < n; id++) {
+			System.arraycopy(ancestorIds[id], 0, ancestors, ancestorOffsets[id], ancestorIds[id].length);
+			System.arraycopy(distances[id], 0, ancestorDistances, ancestorOffsets[id], distances[id].length);
+		}
+	}
+
+	/**
+	 * Loads the noun and verb hierarchies from a WordNet dictionary directory, e.g. the dict directory of WordNet 3.0.
+	 *
+	 * @param dictionary The directory containing the WordNet database files.
+	 * @return Returns the new WordNet index.
+	 * @throws IOException Signals that the files could not be read or are malformed.
+	 */
+	public static WordNetIndex load(File dictionary) throws IOException {
+		HashMap<Integer, Integer> nounIds = new HashMap<Integer, Integer>();
+		HashMap<Integer, Integer> verbIds = new HashMap<Integer, Integer>();
+		List<String> nounData = readDataLines(new File(dictionary, "data.noun"), nounIds, 0);
+		List<String> verbData = readDataLines(new File(dictionary, "data.verb"), verbIds, nounIds.size());
+
+		// The virtual root of all verb hierarchies gets the last ID.
+		int verbRoot = nounIds.size() + verbIds.size();
+		int[][] hypernyms = new int[verbRoot + 1][];
+		hypernyms[verbRoot] = new int[0];
+		for (String line: nounData) {
+			parseHypernyms(line, nounIds, verbIds, hypernyms, -1);
+		}
+		for (String line: verbData) {
+			parseHypernyms(line, nounIds, verbIds, hypernyms, verbRoot);
+		}
+
+		return new WordNetIndex(hypernyms,
+				readIndex(new File(dictionary, "index.noun"), nounIds), readIndex(new File(dictionary, "index.verb"), verbIds),
+				readExceptions(new File(dictionary, "noun.exc")), readExceptions(new File(dictionary, "verb.exc")));
+	}
+
+	/**
+	 * Computes the Wu & Palmer similarity of two words as the maximum over all their noun and verb senses.
+	 *
+	 * @param word1 The first word.
+	 * @param word2 The second word.
+	 * @return Returns the similarity between and including 0 and 1, or 0 if one of the words is not contained in WordNet.
+	 */
+	@Override
+	public float computeWordSimilarity(String word1, String word2) {
+		int[] senses1 = getSenses(word1);
+		int[] senses2 = getSenses(word2);
+		float maximum = 0;
+		for (int synset1: senses1) {
+			for (int synset2: senses2) {
+				maximum = Math.max(maximum, computeSynsetSimilarity(synset1, synset2));
+			}
+		}
+		return maximum;
+	}
+
+	/**
+	 * Computes the Wu & Palmer similarity of two synsets by merging their sorted ancestor arrays.
+	 *
+	 * @param synset1 The ID of the first synset.
+	 * @param synset2 The ID of the second synset.
+	 * @return Returns the similarity, 0 if the synsets do not have a common subsumer.
+	 */
+	public float computeSynsetSimilarity(int synset1, int synset2) {
+		if (synset1 == synset2)
+			return 1.0f;
+
+		float maximum = 0;
+		int i = ancestorOffsets[synset1], iEnd = ancestorOffsets[synset1 + 1];
+		int j = ancestorOffsets[synset2], jEnd = ancestorOffsets[synset2 + 1];
+		while (i < iEnd && j < jEnd) {
+			if (ancestors[i] < ancestors[j]) {
+				i++;
+			} else if (ancestors[i] > ancestors[j]) {
+				j++;
+			} else {
+				int depth = depths[ancestors[i]];
+				float similarity = 2.0f * depth / (ancestorDistances[i] + ancestorDistances[j] + 2 * depth);
+				maximum = Math.max(maximum, similarity);
+				i++;
+				j++;
+			}
+		}
+		return maximum;
+	}
+
+	/**
+	 * Returns the synset IDs of the noun and verb senses of a word. The word is reduced to the base forms contained in WordNet first.
+	 *
+	 * @param word The word.
+	 * @return Returns the synset IDs of all senses of all base forms.
+	 */
+	public int[] getSenses(String word) {
+		int[] senses = wordSenses.get(word);
+		if (senses == null) {
+			String lemma = word.trim().toLowerCase().replace(' ', '_');
+			LinkedHashSet<Integer> ids = new LinkedHashSet<Integer>();
+			addSenses(lemma, nounSenses, nounExceptions, NOUN_RULES, ids);
+			addSenses(lemma, verbSenses, verbExceptions, VERB_RULES, ids);
+			senses = new int[ids.size()];
+			int k = 0;
+			for (int id: ids) {
+				senses[k++] = id;
+			}
+			wordSenses.put(word, senses);
+		}
+		return senses;
+	}
+
+	/**
+	 * Adds the senses of all base forms of a lemma for one part of speech, following the morphy algorithm of WordNet: irregular forms
+	 * are looked up in the exception list, regular ones are reduced by replacing suffixes.
+	 */
+	private static void addSenses(String lemma, Map<String, int[]> senses, Map<String, String[]> exceptions, String[] rules,
+			LinkedHashSet<Integer> ids) {
+		String[] bases = exceptions.get(lemma);
+		if (bases != null) {
+			for (String base: bases) {
+				addAll(senses.get(base), ids);
+			}
+		}
+		addAll(senses.get(lemma), ids);
+		for (int r = 0; r < rules.length; r += 2) {
+			if (lemma.endsWith(rules[r]) && lemma.length() > rules[r].length())
+				addAll(senses.get(lemma.substring(0, lemma.length() - rules[r].length()) + rules[r + 1]), ids);
+		}
+	}
+
+	private static void addAll(int[] values, LinkedHashSet<Integer> ids) {
+		if (values == null)
+			return;
+		for (int value: values) {
+			ids.add(value);
+		}
+	}
+
+	/**
+	 * Computes the sorted ancestors of a synset with their shortest distances and its depth, after computing them for its
+	 * hypernyms.
+	 *
+	 * @throws IllegalStateException if the hypernym relation contains a cycle.
+	 */
+	private void computeAncestors(int id, int[][] hypernyms, int[][] ancestorIds, int[][] distances, boolean[] visiting) {
+		if (ancestorIds[id] != null)
+			return;
+		if (visiting[id])
+			throw new IllegalStateException("The hypernym relation of WordNet contains a cycle at synset " + id + ".");
+		visiting[id] = true;
+
+		int[] ids = {id};
+		int[] idDistances = {0};
+		int depth = 1;
+		for (int hypernym: hypernyms[id]) {
+			computeAncestors(hypernym, hypernyms, ancestorIds, distances, visiting);
+			depth = Math.max(depth, depths[hypernym] + 1);
+
+			// Merge the ancestors of the hypernym, which are one arc further away, keeping the shortest distance per ancestor.
+			int[] otherIds = ancestorIds[hypernym], otherDistances = distances[hypernym];
+			int[] mergedIds = new int[ids.length + otherIds.length];
+			int[] mergedDistances = new int[mergedIds.length];
+			int i = 0, j = 0, k = 0;
+			while (i < ids.length || j < otherIds.length) {
+				if (j == otherIds.length || (i < ids.length && ids[i] < otherIds[j])) {
+					mergedIds[k] = ids[i];
+					mergedDistances[k++] = idDistances[i++];
+				} else if (i == ids.length || otherIds[j] < ids[i]) {
+					mergedIds[k] = otherIds[j];
+					mergedDistances[k++] = otherDistances[j++] + 1;
+				} else {
+					mergedIds[k] = ids[i];
+					mergedDistances[k++] = Math.min(idDistances[i++], otherDistances[j++] + 1);
+				}
+			}
+			ids = Arrays.copyOf(mergedIds, k);
+			idDistances = Arrays.copyOf(mergedDistances, k);
+		}
+
+		ancestorIds[id] = ids;
+		distances[id] = idDistances;
+		depths[id] = depth;
+		visiting[id] = false;
+	}
+
+	/**
+	 * Reads the synset lines of a data file and assigns consecutive IDs to their offsets.
+	 *
+	 * @param file The data file.
+	 * @param ids The map receiving the ID of each synset offset.
+	 * @param firstId The ID of the first synset.
+	 * @return Returns the synset lines in the order of the file.
+	 * @throws IOException Signals that the file could not be read.
+	 */
+	private static List<String> readDataLines(File file, Map<Integer, Integer> ids, int firstId) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		BufferedReader reader = open(file);
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// The license header consists of lines starting with spaces.
+				if (line.isEmpty() || line.charAt(0) == ' ')
+					continue;
+				ids.put(Integer.parseInt(line.substring(0, line.indexOf(' '))), firstId + lines.size());
+				lines.add(line);
+			}
+		} catch (NumberFormatException e) {
+			throw new IOException("Malformed synset offset in " + file + ".", e);
+		} finally {
+			reader.close();
+		}
+		return lines;
+	}
+
+	/**
+	 * Parses the hypernym and instance hypernym pointers of a synset line.
+	 *
+	 * @param line The synset line of a data file.
+	 * @param nounIds The IDs of the noun synsets by offset.
+	 * @param verbIds The IDs of the verb synsets by offset.
+	 * @param hypernyms The array receiving the hypernym IDs of the synset.
+	 * @param root The ID of the virtual root assigned to synsets without hypernyms or -1.
+	 * @throws IOException Signals that the line is malformed.
+	 */
+	private static void parseHypernyms(String line, Map<Integer, Integer> nounIds, Map<Integer, Integer> verbIds, int[][] hypernyms,
+			int root) throws IOException {
+		String[] fields = line.split(" ");
+		try {
+			boolean noun = fields[2].equals("n");
+			int id = (noun ? nounIds : verbIds).get(Integer.parseInt(fields[0]));
+			int wordCount = Integer.parseInt(fields[3], 16);
+			int position = 4 + 2 * wordCount;
+			int pointerCount = Integer.parseInt(fields[position++]);
+
+			int[] ids = new int[pointerCount + 1];
+			int amount = 0;
+			for (int p = 0; p < pointerCount; p++, position += 4) {
+				String symbol = fields[position];
+				if (!symbol.equals("@") && !symbol.equals("@i"))
+					continue;
+				Integer hypernym = (fields[position + 2].equals("n") ? nounIds : verbIds).get(Integer.parseInt(fields[position + 1]));
+				if (hypernym != null)
+					ids[amount++] = hypernym;
+			}
+			if (amount == 0 && root >= 0)
+				ids[amount++] = root;
+			hypernyms[id] = Arrays.copyOf(ids, amount);
+		} catch (RuntimeException e) {
+			throw new IOException("Malformed synset line: " + line, e);
+		}
+	}
+
+	/**
+	 * Reads the senses of the lemmas from an index file.
+	 *
+	 * @param file The index file.
+	 * @param ids The IDs of the synsets by offset.
+	 * @return Returns the synset IDs of the senses of each lemma.
+	 * @throws IOException Signals that the file could not be read or is malformed.
+	 */
+	private static Map<String, int[]> readIndex(File file, Map<Integer, Integer> ids) throws IOException {
+		Map<String, int[]> senses = new HashMap<String, int[]>();
+		BufferedReader reader = open(file);
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.charAt(0) == ' ')
+					continue;
+				String[] fields = line.split(" ");
+				int synsetCount = Integer.parseInt(fields[2]);
+				int pointerCount = Integer.parseInt(fields[3]);
+				int position = 4 + pointerCount + 2;
+				int[] synsets = new int[synsetCount];
+				int amount = 0;
+				for (int s = 0; s < synsetCount; s++) {
+					Integer id = ids.get(Integer.parseInt(fields[position + s]));
+					if (id != null)
+						synsets[amount++] = id;
+				}
+				senses.put(fields[0], Arrays.copyOf(synsets, amount));
+			}
+		} catch (RuntimeException e) {
+			throw new IOException("Malformed index line in " + file + ".", e);
+		} finally {
+			reader.close();
+		}
+		return senses;
+	}
+
+	/**
+	 * Reads an exception list mapping irregular forms to their base forms.
+	 *
+	 * @param file The exception file. An empty map is returned if it does not exist.
+	 * @return Returns the base forms of each irregular form.
+	 * @throws IOException Signals that the file could not be read.
+	 */
+	private static Map<String, String[]> readExceptions(File file) throws IOException {
+		Map<String, String[]> exceptions = new HashMap<String, String[]>();
+		if (!file.isFile())
+			return exceptions;
+
+		BufferedReader reader = open(file);
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.trim().split(" ");
+				if (fields.length > 1)
+					exceptions.put(fields[0], Arrays.copyOfRange(fields, 1, fields.length));
+			}
+		} finally {
+			reader.close();
+		}
+		return exceptions;
+	}
+
+	private static BufferedReader open(File file) throws IOException {
+		return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 1 << 16);
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public int getAmountOfSynsets() {
+		return depths.length;
+	}
+
+	public int getDepth(int synset) {
+		return depths[synset];
+	}
+	/* ------------------------- */
+}
@@ -0,0 +1,184 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.WordVectors;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import de.andreasschoknecht.MatchingManager.CorpusLoader;
+import de.andreasschoknecht.PetriNet.PetriNet;
+import de.andreasschoknecht.PetriNet.Transition;
+import de.andreasschoknecht.Preprocessing.SimpleLabelPreprocessor;
+import semilar.data.Word;
+
+/**
+ * The class CompactWordVectorExtractor extracts the vectors of the words of a corpus from a Word2Vec model in the binary format of
+ * the original word2vec tool, e.g. the GoogleNews model, and writes them to a compact word vector file. The model is read once as a
+ * stream and the vectors of all other words are skipped, so the model is never held in memory. Gzip compressed models are supported.
+ *
+ * The vocabulary consists of the raw forms of the words of the preprocessed transition labels, as these are the words passed to the
+ * semantic matcher of the Triple-S2 approach.
+ */
+public class CompactWordVectorExtractor {
+
+	/**
+	 * Extracts the vectors of the words of a corpus from a Word2Vec model.
+	 *
+	 * Usage: CompactWordVectorExtractor model corpus output [simple]. The corpus is a directory or archive of PNML files. With the
+	 * option simple, labels are preprocessed without the Stanford tools, which has to match the preprocessing used for matching.
+	 *
+	 * @param args the path of the model, the path of the corpus, the path of the output file and optionally simple
+	 * @throws IOException Signals that the model or the corpus could not be read or the output file could not be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.out.println("Usage: CompactWordVectorExtractor <word2vec model> <corpus> <output file> [simple]");
+			System.exit(1);
+		}
+
+		CorpusLoader corpusLoader = new CorpusLoader();
+		if (args.length > 3 && args[3].equals("simple"))
+			corpusLoader.setLabelPreprocessor(new SimpleLabelPreprocessor());
+		Set<String> vocabulary = collectVocabulary(corpusLoader.load(new File(args[1])));
+		System.out.println("Words in the corpus: " + vocabulary.size());
+
+		CompactWordVectors vectors = new CompactWordVectorExtractor().extract(new File(args[0]), vocabulary);
+		vectors.save(new File(args[2]));
+		System.out.println("Words with a vector: " + vectors.getAmountOfWords() + ", words without a vector: "
+				+ vectors.getOutOfVocabularyWords().size());
+	}
+
+	/**
+	 * Collects the raw forms of the words of the preprocessed transition labels of labeled workflow nets.
+	 *
+	 * @param nets The preprocessed labeled workflow nets.
+	 * @return Returns the distinct raw forms.
+	 */
+	public static Set<String> collectVocabulary(List<PetriNet> nets) {
+		Set<String> vocabulary = new HashSet<String>();
+		for (PetriNet net: nets) {
+			for (Transition transition: net.getTransitions()) {
+				for (Word word: transition.getPreProcLabel()) {
+					vocabulary.add(word.getRawForm());
+				}
+			}
+		}
+		return vocabulary;
+	}
+
+	/**
+	 * Reads a Word2Vec model in the binary word2vec format and keeps the vectors of the words of a vocabulary. Reading stops as soon
+	 * as all words have been found.
+	 *
+	 * @param model The model file, which is decompressed if its name ends with .gz.
+	 * @param vocabulary The words whose vectors are needed.
+	 * @return Returns the vectors of the vocabulary together with the words not contained in the model.
+	 * @throws IOException Signals that the model could not be read or is malformed.
+	 */
+	public CompactWordVectors extract(File model, Set<String> vocabulary) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(model), 1 << 16);
+		if (model.getName().endsWith(".gz"))
+			in = new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16);
+
+		try {
+			String[] header = readToken(in, '\n').trim().split(" ");
+			if (header.length != 2)
+				throw new IOException("Malformed header of the Word2Vec model " + model + ".");
+			long amountOfWords = Long.parseLong(header[0]);
+			int dimensions = Integer.parseInt(header[1]);
+
+			Map<String, float[]> wordVectors = new HashMap<String, float[]>();
+			byte[] buffer = new byte[4 * dimensions];
+			for (long i = 0; i < amountOfWords && wordVectors.size() < vocabulary.size(); i++) {
+				String word = readToken(in, ' ');
+				if (vocabulary.contains(word) && !wordVectors.containsKey(word)) {
+					readFully(in, buffer);
+					float[] vector = new float[dimensions];
+					ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+					wordVectors.put(word, vector);
+				} else {
+					skipFully(in, buffer.length);
+				}
+			}
+
+			List<String> outOfVocabulary = new ArrayList<String>();
+			for (String word: vocabulary) {
+				if (!wordVectors.containsKey(word))
+					outOfVocabulary.add(word);
+			}
+			return new CompactWordVectors(dimensions, wordVectors, outOfVocabulary);
+		} catch (NumberFormatException e) {
+			throw new IOException("Malformed header of the Word2Vec model " + model + ".", e);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads UTF-8 encoded text up to a delimiter. Line breaks preceding the text are skipped, as the vectors of the binary format may
+	 * be followed by one.
+	 *
+	 * @param in The stream to read.
+	 * @param delimiter The character ending the text, which is consumed.
+	 * @return Returns the text without the delimiter.
+	 * @throws IOException Signals that the stream ended before the delimiter.
+	 */
+	private String readToken(InputStream in, char delimiter) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+		int b;
+		while ((b = in.read()) != delimiter) {
+			if (b < 0)
+				throw new EOFException("The Word2Vec model ended unexpectedly.");
+			if (b == '\n' && bytes.size() == 0)
+				continue;
+			bytes.write(b);
+		}
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private void readFully(InputStream in, byte[] buffer) throws IOException {
+		for (int offset = 0; offset < buffer.length; ) {
+			int count = in.read(buffer, offset, buffer.length - offset);
+			if (count < 0)
+				throw new EOFException("The Word2Vec model ended unexpectedly.");
+			offset += count;
+		}
+	}
+
+	private void skipFully(InputStream in, long length) throws IOException {
+		while (length > 0) {
+			long skipped = in.skip(length);
+			if (skipped <= 0) {
+				if (in.read() < 0)
+					throw new EOFException("The Word2Vec model ended unexpectedly.");
+				skipped = 1;
+			}
+			length -= skipped;
+		}
+	}
+
+}
@@ -0,0 +1,213 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.WordVectors;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The class CompactWordVectors holds the vectors of a restricted vocabulary, usually the words of a corpus, which have been extracted
+ * from a large Word2Vec model by the CompactWordVectorExtractor. Loading a compact file takes a fraction of the time and memory of
+ * loading the whole model, while the similarities of the contained words are the same.
+ *
+ * Besides the vectors, a compact file lists the words of the vocabulary which are not contained in the original model. This way,
+ * it can be checked whether a word has no vector in the model or has just not been extracted.
+ */
+public class CompactWordVectors implements WordVectorSimilarity {
+
+	/** Identifies the file format of compact word vector files. */
+	private static final int FILE_FORMAT_VERSION = 1;
+
+	/** The number of dimensions of the vectors. */
+	private final int dimensions;
+
+	/** The index of each word having a vector. */
+	private final Map<String, Integer> indices;
+
+	/** The vectors of all words, one after another. */
+	private final float[] vectors;
+
+	/** The Euclidean norm of each vector. */
+	private final float[] norms;
+
+	/** The words of the vocabulary which are not contained in the original model. */
+	private final Set<String> outOfVocabulary;
+
+	/**
+	 * Instantiates a new CompactWordVectors object.
+	 *
+	 * @param dimensions the number of dimensions of the vectors
+	 * @param wordVectors the vector of each word having one
+	 * @param outOfVocabulary the words of the vocabulary which are not contained in the original model
+	 * @throws IllegalArgumentException if a vector does not have the given number of dimensions.
+	 */
+	public CompactWordVectors(int dimensions, Map<String, float[]> wordVectors, Collection<String> outOfVocabulary) {
+		this.dimensions = dimensions;
+		this.indices = new HashMap<String, Integer>(2 * wordVectors.size());
+		this.vectors = new float[wordVectors.size() * dimensions];
+		this.norms = new float[wordVectors.size()];
+		this.outOfVocabulary = new HashSet<String>(outOfVocabulary);
+
+		int index = 0;
+		for (Map.Entry<String, float[]> entry: wordVectors.entrySet()) {
+			float[] vector = entry.getValue();
+			if (vector.length != dimensions)
+				throw new IllegalArgumentException("The vector of " + entry.getKey() + " has " + vector.length + " instead of "
+						+ dimensions + " dimensions.");
+			System.arraycopy(vector, 0, vectors, index * dimensions, dimensions);
+			norms[index] = (float) Math.sqrt(dot(vector, 0, vector, 0, dimensions));
+			indices.put(entry.getKey(), index++);
+		}
+	}
+
+	/**
+	 * Loads a compact word vector file written by save.
+	 *
+	 * @param file The file to load.
+	 * @return Returns the loaded word vectors.
+	 * @throws IOException Signals that the file could not be read or has another format version.
+	 */
+	public static CompactWordVectors load(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+		try {
+			int version = in.readInt();
+			if (version != FILE_FORMAT_VERSION)
+				throw new IOException("Unsupported compact word vector format version " + version + ".");
+
+			int dimensions = in.readInt();
+			int amountOfWords = in.readInt();
+			Map<String, float[]> wordVectors = new HashMap<String, float[]>(2 * amountOfWords);
+			Set<String> outOfVocabulary = new HashSet<String>();
+			for (int i = 0; i < amountOfWords; i++) {
+				String word = in.readUTF();
+				if (!in.readBoolean()) {
+					outOfVocabulary.add(word);
+					continue;
+				}
+				float[] vector = new float[dimensions];
+				for (int d = 0; d < dimensions; d++) {
+					vector[d] = in.readFloat();
+				}
+				wordVectors.put(word, vector);
+			}
+			return new CompactWordVectors(dimensions, wordVectors, outOfVocabulary);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Saves the word vectors and the words without vector to a file.
+	 *
+	 * @param file The file to write.
+	 * @throws IOException Signals that the file could not be written.
+	 */
+	public void save(File file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		try {
+			out.writeInt(FILE_FORMAT_VERSION);
+			out.writeInt(dimensions);
+			out.writeInt(indices.size() + outOfVocabulary.size());
+			for (Map.Entry<String, Integer> entry: indices.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeBoolean(true);
+				for (int d = 0, offset = entry.getValue() * dimensions; d < dimensions; d++) {
+					out.writeFloat(vectors[offset + d]);
+				}
+			}
+			for (String word: outOfVocabulary) {
+				out.writeUTF(word);
+				out.writeBoolean(false);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	@Override
+	public float similarity(String word1, String word2) {
+		Integer index1 = indices.get(word1);
+		Integer index2 = indices.get(word2);
+		if (index1 == null || index2 == null)
+			return Float.NaN;
+		if (word1.equals(word2))
+			return 1.0f;
+		return (float) (dot(vectors, index1 * dimensions, vectors, index2 * dimensions, dimensions) / (norms[index1] * norms[index2]));
+	}
+
+	@Override
+	public boolean hasWord(String word) {
+		return indices.containsKey(word);
+	}
+
+	/**
+	 * Checks whether a word of the vocabulary is known to have no vector in the original model.
+	 *
+	 * @param word The word.
+	 * @return Returns true if the word has been looked up in the original model without success.
+	 */
+	public boolean isOutOfVocabulary(String word) {
+		return outOfVocabulary.contains(word);
+	}
+
+	@Override
+	public float[] getVector(String word) {
+		Integer index = indices.get(word);
+		if (index == null)
+			return null;
+		float[] vector = new float[dimensions];
+		System.arraycopy(vectors, index * dimensions, vector, 0, dimensions);
+		return vector;
+	}
+
+	/**
+	 * Computes the dot product of two vectors stored in arrays.
+	 */
+	private static double dot(float[] a, int offsetA, float[] b, int offsetB, int length) {
+		double sum = 0;
+		for (int d = 0; d < length; d++) {
+			sum += a[offsetA + d] * b[offsetB + d];
+		}
+		return sum;
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public int getDimensions() {
+		return dimensions;
+	}
+
+	public int getAmountOfWords() {
+		return indices.size();
+	}
+
+	public Set<String> getWords() {
+		return Collections.unmodifiableSet(indices.keySet());
+	}
+
+	public Set<String> getOutOfVocabularyWords() {
+		return Collections.unmodifiableSet(outOfVocabulary);
+	}
+	/* ------------------------- */
+}
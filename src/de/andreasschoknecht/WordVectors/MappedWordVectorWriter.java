@@ -0,0 +1,165 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.WordVectors;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The class MappedWordVectorWriter writes word vectors in the format read by MappedWordVectors. It can be run as a tool converting a
+ * compact word vector file into a mapped word vector file.
+ */
+public class MappedWordVectorWriter {
+
+	/** The alignment of the vectors in the file in bytes. */
+	private static final int VECTOR_ALIGNMENT = 64;
+
+	/**
+	 * Converts a compact word vector file into a mapped word vector file.
+	 *
+	 * @param args the path of the compact word vector file and the path of the mapped word vector file
+	 * @throws IOException Signals that the input could not be read or the output could not be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: MappedWordVectorWriter <compact word vector file> <mapped word vector file>");
+			System.exit(1);
+		}
+		CompactWordVectors vectors = CompactWordVectors.load(new File(args[0]));
+		new MappedWordVectorWriter().write(new File(args[1]), vectors);
+		System.out.println("Words written: " + vectors.getAmountOfWords());
+	}
+
+	/**
+	 * Writes the vectors of compact word vectors to a mapped word vector file.
+	 *
+	 * @param file The file to write.
+	 * @param vectors The word vectors.
+	 * @throws IOException Signals that the file could not be written.
+	 */
+	public void write(File file, CompactWordVectors vectors) throws IOException {
+		Map<String, float[]> wordVectors = new HashMap<String, float[]>(2 * vectors.getAmountOfWords());
+		for (String word: vectors.getWords()) {
+			wordVectors.put(word, vectors.getVector(word));
+		}
+		write(file, vectors.getDimensions(), wordVectors);
+	}
+
+	/**
+	 * Writes word vectors to a mapped word vector file.
+	 *
+	 * @param file The file to write.
+	 * @param dimensions The number of dimensions of the vectors.
+	 * @param wordVectors The vector of each word.
+	 * @throws IOException Signals that the file could not be written.
+	 * @throws IllegalArgumentException if a vector does not have the given number of dimensions.
+	 */
+	public void write(File file, int dimensions, Map<String, float[]> wordVectors) throws IOException {
+		// Sort the words by their UTF-8 bytes, which is the order of the binary search in MappedWordVectors.
+		byte[][] words = new byte[wordVectors.size()][];
+		int n = 0;
+		for (String word: wordVectors.keySet()) {
+			words[n++] = word.getBytes(StandardCharsets.UTF_8);
+		}
+		Arrays.sort(words, new Comparator<byte[]>() {
+			public int compare(byte[] a, byte[] b) {
+				for (int i = 0, length = Math.min(a.length, b.length); i < length; i++) {
+					int difference = (a[i] & 0xFF) - (b[i] & 0xFF);
+					if (difference != 0)
+						return difference;
+				}
+				return a.length - b.length;
+			}
+		});
+
+		long wordBytes = 0;
+		for (byte[] word: words) {
+			wordBytes += word.length;
+		}
+		long normsOffset = align(MappedWordVectors.HEADER_SIZE + 4L * (n + 1) + wordBytes, 4);
+		long vectorsOffset = align(normsOffset + 4L * n, VECTOR_ALIGNMENT);
+		if (vectorsOffset > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("The vocabulary is too large for the mapped word vector format.");
+
+		float[][] vectors = new float[n][];
+		for (int i = 0; i < n; i++) {
+			vectors[i] = wordVectors.get(new String(words[i], StandardCharsets.UTF_8));
+			if (vectors[i].length != dimensions)
+				throw new IllegalArgumentException("A vector has " + vectors[i].length + " instead of " + dimensions + " dimensions.");
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		try {
+			writeIntLE(out, MappedWordVectors.MAGIC);
+			writeIntLE(out, MappedWordVectors.FORMAT_VERSION);
+			writeIntLE(out, dimensions);
+			writeIntLE(out, n);
+			writeLongLE(out, normsOffset);
+			writeLongLE(out, vectorsOffset);
+
+			int offset = 0;
+			writeIntLE(out, offset);
+			for (byte[] word: words) {
+				offset += word.length;
+				writeIntLE(out, offset);
+			}
+			for (byte[] word: words) {
+				out.write(word);
+			}
+			pad(out, normsOffset);
+
+			for (float[] vector: vectors) {
+				double sum = 0;
+				for (float value: vector) {
+					sum += value * value;
+				}
+				writeIntLE(out, Float.floatToIntBits((float) Math.sqrt(sum)));
+			}
+			pad(out, vectorsOffset);
+
+			for (float[] vector: vectors) {
+				for (float value: vector) {
+					writeIntLE(out, Float.floatToIntBits(value));
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	private static long align(long position, int alignment) {
+		return (position + alignment - 1) / alignment * alignment;
+	}
+
+	private static void pad(DataOutputStream out, long position) throws IOException {
+		while (out.size() < position) {
+			out.write(0);
+		}
+	}
+
+	private static void writeIntLE(DataOutputStream out, int value) throws IOException {
+		out.writeInt(Integer.reverseBytes(value));
+	}
+
+	private static void writeLongLE(DataOutputStream out, long value) throws IOException {
+		out.writeLong(Long.reverseBytes(value));
+	}
+
+}
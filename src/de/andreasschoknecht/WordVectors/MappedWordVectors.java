@@ -0,0 +1,207 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.WordVectors;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The class MappedWordVectors reads word vectors directly from a file in the mapped word vector format, which is written by the
+ * MappedWordVectorWriter. The file is memory-mapped instead of being parsed, so opening it takes no time and the vectors are not
+ * copied to the heap. Several JVMs mapping the same file share its pages in the page cache of the operating system.
+ *
+ * The file consists of a header, the vocabulary sorted by the bytes of the UTF-8 encoded words, the norms of the vectors and the
+ * vectors themselves, all in little-endian byte order:
+ *
+ * int magic number, int format version, int dimensions, int number of words, long offset of the norms, long offset of the vectors,
+ * int[number of words + 1] offsets of the words relative to the start of the word bytes, the UTF-8 bytes of the words,
+ * float[number of words] norms and float[number of words * dimensions] vectors.
+ *
+ * Words are found by binary search in the sorted vocabulary. All reads use absolute positions, so an object can be shared by all
+ * matcher threads.
+ */
+public class MappedWordVectors implements WordVectorSimilarity {
+
+	/** Identifies files in the mapped word vector format. */
+	static final int MAGIC = 0x54535756;
+
+	/** Identifies the version of the mapped word vector format. */
+	static final int FORMAT_VERSION = 1;
+
+	/** The size of the header in bytes. */
+	static final int HEADER_SIZE = 32;
+
+	/** The maximum number of bytes mapped by one buffer of vectors. */
+	private static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+	/** The number of dimensions of the vectors and the number of words. */
+	private final int dimensions, amountOfWords;
+
+	/** The mapped header, vocabulary and norms. */
+	private final ByteBuffer index;
+
+	/** The position of the first word byte in the index buffer. */
+	private final int wordsStart;
+
+	/** The norms of the vectors. */
+	private final FloatBuffer norms;
+
+	/** The mapped vectors, split into segments of whole vectors, as a single buffer cannot map more than 2 GB. */
+	private final FloatBuffer[] segments;
+
+	/** The number of vectors per segment. */
+	private final int vectorsPerSegment;
+
+	/**
+	 * Maps a file in the mapped word vector format.
+	 *
+	 * @param file The file to map.
+	 * @throws IOException Signals that the file could not be mapped or is not in the mapped word vector format.
+	 */
+	public MappedWordVectors(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_SIZE, channel.size()))
+					.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.limit() < HEADER_SIZE || header.getInt(0) != MAGIC)
+				throw new IOException(file + " is not a mapped word vector file.");
+			if (header.getInt(4) != FORMAT_VERSION)
+				throw new IOException("Unsupported mapped word vector format version " + header.getInt(4) + ".");
+
+			dimensions = header.getInt(8);
+			amountOfWords = header.getInt(12);
+			long normsOffset = header.getLong(16);
+			long vectorsOffset = header.getLong(24);
+			long vectorBytes = 4L * dimensions;
+			if (dimensions < 1 || amountOfWords < 0 || normsOffset > vectorsOffset || vectorsOffset > Integer.MAX_VALUE
+					|| vectorsOffset + vectorBytes * amountOfWords > channel.size())
+				throw new IOException(file + " is not a valid mapped word vector file.");
+
+			index = channel.map(FileChannel.MapMode.READ_ONLY, 0, vectorsOffset).order(ByteOrder.LITTLE_ENDIAN);
+			wordsStart = HEADER_SIZE + 4 * (amountOfWords + 1);
+			ByteBuffer normBytes = index.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+			normBytes.position((int) normsOffset);
+			norms = normBytes.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+
+			vectorsPerSegment = (int) Math.max(1, MAX_SEGMENT_SIZE / vectorBytes);
+			int amountOfSegments = (amountOfWords + vectorsPerSegment - 1) / vectorsPerSegment;
+			segments = new FloatBuffer[amountOfSegments];
+			for (int s = 0; s < amountOfSegments; s++) {
+				int vectors = Math.min(vectorsPerSegment, amountOfWords - s * vectorsPerSegment);
+				segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, vectorsOffset + s * vectorBytes * vectorsPerSegment,
+						vectors * vectorBytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+			}
+		} finally {
+			// The mappings stay valid after closing the file.
+			randomAccessFile.close();
+		}
+	}
+
+	@Override
+	public float similarity(String word1, String word2) {
+		int index1 = indexOf(word1);
+		int index2 = indexOf(word2);
+		if (index1 < 0 || index2 < 0)
+			return Float.NaN;
+		if (index1 == index2)
+			return 1.0f;
+		return (float) (dot(index1, index2) / (norms.get(index1) * norms.get(index2)));
+	}
+
+	@Override
+	public boolean hasWord(String word) {
+		return indexOf(word) >= 0;
+	}
+
+	@Override
+	public float[] getVector(String word) {
+		int wordIndex = indexOf(word);
+		if (wordIndex < 0)
+			return null;
+		FloatBuffer segment = segments[wordIndex / vectorsPerSegment];
+		int offset = (wordIndex % vectorsPerSegment) * dimensions;
+		float[] vector = new float[dimensions];
+		for (int d = 0; d < dimensions; d++) {
+			vector[d] = segment.get(offset + d);
+		}
+		return vector;
+	}
+
+	/**
+	 * Finds a word in the sorted vocabulary by binary search.
+	 *
+	 * @param word The word.
+	 * @return Returns the index of the word or -1 if the word has no vector.
+	 */
+	public int indexOf(String word) {
+		byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+		int low = 0, high = amountOfWords - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = compareWord(middle, bytes);
+			if (comparison < 0)
+				low = middle + 1;
+			else if (comparison > 0)
+				high = middle - 1;
+			else
+				return middle;
+		}
+		return -1;
+	}
+
+	/**
+	 * Compares a word of the vocabulary with the UTF-8 bytes of another word, treating the bytes as unsigned values.
+	 */
+	private int compareWord(int wordIndex, byte[] bytes) {
+		int start = wordsStart + index.getInt(HEADER_SIZE + 4 * wordIndex);
+		int length = wordsStart + index.getInt(HEADER_SIZE + 4 * (wordIndex + 1)) - start;
+		for (int i = 0, n = Math.min(length, bytes.length); i < n; i++) {
+			int difference = (index.get(start + i) & 0xFF) - (bytes[i] & 0xFF);
+			if (difference != 0)
+				return difference;
+		}
+		return length - bytes.length;
+	}
+
+	/**
+	 * Computes the dot product of two vectors of the file.
+	 */
+	private double dot(int index1, int index2) {
+		FloatBuffer segment1 = segments[index1 / vectorsPerSegment];
+		FloatBuffer segment2 = segments[index2 / vectorsPerSegment];
+		int offset1 = (index1 % vectorsPerSegment) * dimensions;
+		int offset2 = (index2 % vectorsPerSegment) * dimensions;
+		double sum = 0;
+		for (int d = 0; d < dimensions; d++) {
+			sum += segment1.get(offset1 + d) * segment2.get(offset2 + d);
+		}
+		return sum;
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public int getDimensions() {
+		return dimensions;
+	}
+
+	public int getAmountOfWords() {
+		return amountOfWords;
+	}
+	/* ------------------------- */
+}
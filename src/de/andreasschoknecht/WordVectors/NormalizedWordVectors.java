@@ -0,0 +1,226 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.WordVectors;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.andreasschoknecht.PetriNet.PetriNet;
+import de.andreasschoknecht.PetriNet.Transition;
+
+/**
+ * The class NormalizedWordVectors computes the cosine similarity of words from unit-normalized copies of the vectors of another
+ * source of word vectors. The vector of each word is fetched from the source and normalized only once, so the cosine similarity of
+ * two words is a plain dot product without any lookup in the source or calculation of norms.
+ *
+ * Each word gets an index into the normalized vectors when it is looked up first. The indices of the words of the transition labels
+ * can be attached to the transitions while loading a corpus. The semantic matcher of the Triple-S2 approach then compares the words
+ * of two transitions without looking up a single word.
+ */
+public class NormalizedWordVectors implements WordVectorSimilarity {
+
+	/** The initial number of normalized vectors which can be stored without growing the store. */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** The source of the vectors. */
+	private final WordVectorSimilarity source;
+
+	/** The index of each word looked up so far, -1 for words without vector. */
+	private final ConcurrentHashMap<String, Integer> indices = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * The normalized vectors by index. The array is replaced by a larger copy when it is full. A vector is stored before its index is
+	 * published, so every thread knowing an index finds its vector.
+	 */
+	private volatile float[][] vectors = new float[INITIAL_CAPACITY][];
+
+	/** The number of normalized vectors stored. It is only accessed while holding the lock of the object. */
+	private int amountOfVectors;
+
+	/**
+	 * Instantiates a new NormalizedWordVectors object.
+	 *
+	 * @param source the source of the vectors, e.g. CompactWordVectors or MappedWordVectors
+	 */
+	public NormalizedWordVectors(WordVectorSimilarity source) {
+		this.source = source;
+	}
+
+	/**
+	 * Looks up the index of a word. The vector of a word looked up for the first time is fetched from the source and normalized.
+	 *
+	 * @param word The word.
+	 * @return Returns the index of the word or -1 if the word has no vector.
+	 */
+	public int indexOf(String word) {
+		Integer index = indices.get(word);
+		if (index == null)
+			index = add(word, normalize(source.getVector(word)));
+		return index;
+	}
+
+	/**
+	 * Returns the normalized vector of a word. The returned array is shared by all callers and must not be changed.
+	 *
+	 * @param word The word.
+	 * @return Returns the vector with a Euclidean norm of 1 or null if the word has no vector.
+	 */
+	public float[] getNormalizedVector(String word) {
+		int index = indexOf(word);
+		return index < 0 ? null : vectors[index];
+	}
+
+	/**
+	 * Returns the normalized vector of a word given by its index. The returned array is shared by all callers and must not be
+	 * changed.
+	 *
+	 * @param index The index of the word returned by indexOf or getWordIndices.
+	 * @return Returns the vector with a Euclidean norm of 1.
+	 */
+	public float[] getNormalizedVector(int index) {
+		return vectors[index];
+	}
+
+	@Override
+	public int[] getWordIndices(Transition transition) {
+		if (transition.getWordVectorSource() == this)
+			return transition.getWordVectorIndices();
+		int[] wordIndices = new int[transition.getPreProcLabel().size()];
+		for (int i = 0; i < wordIndices.length; i++) {
+			wordIndices[i] = indexOf(transition.getPreProcLabel().get(i).getRawForm());
+		}
+		return wordIndices;
+	}
+
+	/**
+	 * Attaches the indices of the words of the preprocessed transition labels to the transitions of labeled workflow nets.
+	 *
+	 * @param nets The preprocessed labeled workflow nets.
+	 */
+	public void attach(List<PetriNet> nets) {
+		for (PetriNet net: nets) {
+			for (Transition transition: net.getTransitions()) {
+				transition.setWordVectorIndices(this, getWordIndices(transition));
+			}
+		}
+	}
+
+	@Override
+	public float similarity(String word1, String word2) {
+		return similarity(indexOf(word1), indexOf(word2));
+	}
+
+	/**
+	 * Calculates the cosine similarity of two words from their normalized vectors.
+	 *
+	 * @param index1 The index of the first word or -1.
+	 * @param index2 The index of the second word or -1.
+	 * @return Returns NaN if an index is -1, 1 if both indices are the same and the dot product of the vectors otherwise.
+	 */
+	@Override
+	public float similarity(int index1, int index2) {
+		if (index1 < 0 || index2 < 0)
+			return Float.NaN;
+		if (index1 == index2)
+			return 1.0f;
+		float[][] currentVectors = vectors;
+		return dot(currentVectors[index1], currentVectors[index2]);
+	}
+
+	/**
+	 * Computes the dot product of two vectors of the same length. The loop uses four independent sums, so the JIT compiler can
+	 * overlap the additions instead of waiting for each previous one.
+	 *
+	 * @param a The first vector.
+	 * @param b The second vector.
+	 * @return Returns the dot product.
+	 */
+	public static float dot(float[] a, float[] b) {
+		int length = Math.min(a.length, b.length);
+		float sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+		int d = 0;
+		for (; d <= length - 4; d += 4) {
+			sum0 += a[d] * b[d];
+			sum1 += a[d + 1] * b[d + 1];
+			sum2 += a[d + 2] * b[d + 2];
+			sum3 += a[d + 3] * b[d + 3];
+		}
+		for (; d < length; d++) {
+			sum0 += a[d] * b[d];
+		}
+		return (sum0 + sum1) + (sum2 + sum3);
+	}
+
+	@Override
+	public boolean hasWord(String word) {
+		return indexOf(word) >= 0;
+	}
+
+	@Override
+	public float[] getVector(String word) {
+		float[] vector = getNormalizedVector(word);
+		return vector == null ? null : vector.clone();
+	}
+
+	/**
+	 * Stores the normalized vector of a word unless another thread has stored it meanwhile.
+	 *
+	 * @return Returns the index of the word or -1 if the vector is null.
+	 */
+	private synchronized int add(String word, float[] vector) {
+		Integer index = indices.get(word);
+		if (index != null)
+			return index;
+		if (vector == null) {
+			indices.put(word, -1);
+			return -1;
+		}
+
+		float[][] currentVectors = vectors;
+		if (amountOfVectors == currentVectors.length)
+			currentVectors = Arrays.copyOf(currentVectors, 2 * currentVectors.length);
+		currentVectors[amountOfVectors] = vector;
+		vectors = currentVectors;
+		indices.put(word, amountOfVectors);
+		return amountOfVectors++;
+	}
+
+	/**
+	 * Divides a vector by its Euclidean norm.
+	 *
+	 * @return Returns the normalized vector or null if the vector is null or has a norm of 0.
+	 */
+	private static float[] normalize(float[] vector) {
+		if (vector == null)
+			return null;
+		double sum = 0;
+		for (float value: vector) {
+			sum += value * value;
+		}
+		if (sum == 0)
+			return null;
+		double norm = Math.sqrt(sum);
+		float[] normalized = new float[vector.length];
+		for (int d = 0; d < vector.length; d++) {
+			normalized[d] = (float) (vector[d] / norm);
+		}
+		return normalized;
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public WordVectorSimilarity getSource() {
+		return source;
+	}
+	/* ------------------------- */
+}
@@ -0,0 +1,227 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.WordVectors;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.andreasschoknecht.PetriNet.PetriNet;
+import de.andreasschoknecht.PetriNet.Transition;
+
+/**
+ * The class QuantizedWordVectors holds the vectors of a vocabulary as 8 bit integers, which takes a quarter of the memory of the
+ * original float vectors. Each vector is normalized to a Euclidean norm of 1 and divided by a scale of its own, so that its largest
+ * absolute value becomes 127, and rounded. The cosine similarity of two words is the dot product of their integer vectors multiplied
+ * by both scales.
+ *
+ * The quantization changes the similarities slightly. The QuantizationReport of the Triple-S2 approach shows how much the semantic
+ * similarities of the transitions of a corpus deviate from the similarities computed with the original vectors.
+ *
+ * Like with NormalizedWordVectors, the indices of the words of the transition labels can be attached to the transitions, so the
+ * semantic matcher of the Triple-S2 approach does not look up any word.
+ */
+public class QuantizedWordVectors implements WordVectorSimilarity {
+
+	/** The largest absolute value of a quantized vector. */
+	private static final int MAX_QUANTIZED_VALUE = 127;
+
+	/** The number of dimensions of the vectors. */
+	private final int dimensions;
+
+	/** The index of each word of the vocabulary having a vector. */
+	private final Map<String, Integer> indices;
+
+	/** The quantized vectors of all words, one after another. */
+	private final byte[] values;
+
+	/** The scale of each quantized vector. */
+	private final float[] scales;
+
+	/**
+	 * Quantizes the vectors of the words of a vocabulary. No reference to the source is kept, so the original vectors can be
+	 * garbage collected once they are not used anymore.
+	 *
+	 * @param source the source of the vectors, e.g. CompactWordVectors
+	 * @param vocabulary the words to quantize, e.g. collected by CompactWordVectorExtractor.collectVocabulary
+	 * @throws IllegalArgumentException if the vectors do not have the same number of dimensions.
+	 */
+	public QuantizedWordVectors(WordVectorSimilarity source, Collection<String> vocabulary) {
+		Map<String, float[]> vectors = new HashMap<String, float[]>(2 * vocabulary.size());
+		int dimensions = 0;
+		for (String word: vocabulary) {
+			float[] vector = source.getVector(word);
+			// Like a missing vector, a vector of zeros has no cosine similarity to any other vector.
+			if (vector == null || isZero(vector))
+				continue;
+			if (vectors.isEmpty())
+				dimensions = vector.length;
+			else if (vector.length != dimensions)
+				throw new IllegalArgumentException("The vector of " + word + " has " + vector.length + " instead of " + dimensions
+						+ " dimensions.");
+			vectors.put(word, vector);
+		}
+
+		this.dimensions = dimensions;
+		this.indices = new HashMap<String, Integer>(2 * vectors.size());
+		this.values = new byte[vectors.size() * dimensions];
+		this.scales = new float[vectors.size()];
+		int index = 0;
+		for (Map.Entry<String, float[]> entry: vectors.entrySet()) {
+			scales[index] = quantize(entry.getValue(), values, index * dimensions);
+			indices.put(entry.getKey(), index++);
+		}
+	}
+
+	/**
+	 * Looks up the index of a word.
+	 *
+	 * @param word The word.
+	 * @return Returns the index of the word or -1 if the word has no quantized vector.
+	 */
+	public int indexOf(String word) {
+		Integer index = indices.get(word);
+		return index == null ? -1 : index;
+	}
+
+	@Override
+	public int[] getWordIndices(Transition transition) {
+		if (transition.getWordVectorSource() == this)
+			return transition.getWordVectorIndices();
+		int[] wordIndices = new int[transition.getPreProcLabel().size()];
+		for (int i = 0; i < wordIndices.length; i++) {
+			wordIndices[i] = indexOf(transition.getPreProcLabel().get(i).getRawForm());
+		}
+		return wordIndices;
+	}
+
+	/**
+	 * Attaches the indices of the words of the preprocessed transition labels to the transitions of labeled workflow nets.
+	 *
+	 * @param nets The preprocessed labeled workflow nets.
+	 */
+	public void attach(List<PetriNet> nets) {
+		for (PetriNet net: nets) {
+			for (Transition transition: net.getTransitions()) {
+				transition.setWordVectorIndices(this, getWordIndices(transition));
+			}
+		}
+	}
+
+	@Override
+	public float similarity(String word1, String word2) {
+		return similarity(indexOf(word1), indexOf(word2));
+	}
+
+	/**
+	 * Calculates the cosine similarity of two words from their quantized vectors.
+	 *
+	 * @param index1 The index of the first word or -1.
+	 * @param index2 The index of the second word or -1.
+	 * @return Returns NaN if an index is -1, 1 if both indices are the same and the approximate cosine similarity otherwise.
+	 */
+	@Override
+	public float similarity(int index1, int index2) {
+		if (index1 < 0 || index2 < 0)
+			return Float.NaN;
+		if (index1 == index2)
+			return 1.0f;
+		return dot(values, index1 * dimensions, values, index2 * dimensions, dimensions) * scales[index1] * scales[index2];
+	}
+
+	/**
+	 * Computes the dot product of two vectors of 8 bit integers stored in arrays. The products of 8 bit values are summed up as int
+	 * values, which cannot overflow for less than 133,000 dimensions.
+	 *
+	 * @return Returns the dot product.
+	 */
+	public static int dot(byte[] a, int offsetA, byte[] b, int offsetB, int length) {
+		int sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+		int d = 0;
+		for (; d <= length - 4; d += 4) {
+			sum0 += a[offsetA + d] * b[offsetB + d];
+			sum1 += a[offsetA + d + 1] * b[offsetB + d + 1];
+			sum2 += a[offsetA + d + 2] * b[offsetB + d + 2];
+			sum3 += a[offsetA + d + 3] * b[offsetB + d + 3];
+		}
+		for (; d < length; d++) {
+			sum0 += a[offsetA + d] * b[offsetB + d];
+		}
+		return sum0 + sum1 + sum2 + sum3;
+	}
+
+	@Override
+	public boolean hasWord(String word) {
+		return indices.containsKey(word);
+	}
+
+	/**
+	 * Returns the normalized vector of a word restored from its quantized vector.
+	 */
+	@Override
+	public float[] getVector(String word) {
+		int index = indexOf(word);
+		if (index < 0)
+			return null;
+		float[] vector = new float[dimensions];
+		for (int d = 0; d < dimensions; d++) {
+			vector[d] = values[index * dimensions + d] * scales[index];
+		}
+		return vector;
+	}
+
+	/**
+	 * Normalizes a vector and quantizes it into an array.
+	 *
+	 * @return Returns the scale of the quantized vector.
+	 */
+	private static float quantize(float[] vector, byte[] values, int offset) {
+		double sum = 0;
+		float maxAbsoluteValue = 0;
+		for (float value: vector) {
+			sum += value * value;
+			maxAbsoluteValue = Math.max(maxAbsoluteValue, Math.abs(value));
+		}
+
+		double norm = Math.sqrt(sum);
+		double scale = maxAbsoluteValue / norm / MAX_QUANTIZED_VALUE;
+		for (int d = 0; d < vector.length; d++) {
+			values[offset + d] = (byte) Math.round(vector[d] / norm / scale);
+		}
+		return (float) scale;
+	}
+
+	private static boolean isZero(float[] vector) {
+		for (float value: vector) {
+			if (value != 0)
+				return false;
+		}
+		return true;
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public int getDimensions() {
+		return dimensions;
+	}
+
+	public int getAmountOfWords() {
+		return indices.size();
+	}
+
+	/** Returns the number of bytes taken by the quantized vectors and their scales. */
+	public long getVectorBytes() {
+		return values.length + 4L * scales.length;
+	}
+	/* ------------------------- */
+}
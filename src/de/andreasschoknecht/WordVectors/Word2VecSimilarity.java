@@ -0,0 +1,61 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.WordVectors;
+
+import org.deeplearning4j.models.word2vec.Word2Vec;
+
+/**
+ * The class Word2VecSimilarity computes the similarity of words with a Word2Vec model of Deeplearning4j.
+ */
+public class Word2VecSimilarity implements WordVectorSimilarity {
+
+	/** The Word2Vec model, which is only read. */
+	private final Word2Vec vec;
+
+	/**
+	 * Instantiates a new Word2VecSimilarity object.
+	 *
+	 * @param vec the Word2Vec model
+	 */
+	public Word2VecSimilarity(Word2Vec vec) {
+		this.vec = vec;
+	}
+
+	@Override
+	public float similarity(String word1, String word2) {
+		return (float) vec.similarity(word1, word2);
+	}
+
+	@Override
+	public boolean hasWord(String word) {
+		return vec.hasWord(word);
+	}
+
+	@Override
+	public float[] getVector(String word) {
+		if (!vec.hasWord(word))
+			return null;
+		double[] values = vec.getWordVector(word);
+		float[] vector = new float[values.length];
+		for (int d = 0; d < values.length; d++) {
+			vector[d] = (float) values[d];
+		}
+		return vector;
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public Word2Vec getVec() {
+		return vec;
+	}
+	/* ------------------------- */
+}
@@ -0,0 +1,211 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ *
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.WordVectors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.andreasschoknecht.PetriNet.PetriNet;
+import de.andreasschoknecht.PetriNet.Transition;
+
+/**
+ * The class WordSimilarityMatrix holds the cosine similarities of all pairs of distinct words of the transition labels of two labeled
+ * workflow nets. The matrix is computed at once as the product of the normalized vectors of the words of the first net and the
+ * transposed normalized vectors of the words of the second net, so the similarities of the words of two transitions are only read
+ * from it.
+ *
+ * The product is computed in blocks of columns. All rows are multiplied with one block of vectors of the second net before the next
+ * block is used, so the vectors of a block stay in the cache of the processor. The similarities are bit-identical to those computed
+ * by NormalizedWordVectors for single pairs of words.
+ */
+public class WordSimilarityMatrix {
+
+	/** The number of vectors of the second net multiplied with all vectors of the first net at a time. */
+	private static final int COLUMN_BLOCK_SIZE = 64;
+
+	/** The number of distinct words of the first and the second net having a vector. */
+	private final int rows, columns;
+
+	/** The similarities of the words, row by row. */
+	private final float[] similarities;
+
+	/** The row of each word of the transitions of the first net, -1 for words without vector. */
+	private final IdentityHashMap<Transition, int[]> rowIndices = new IdentityHashMap<Transition, int[]>();
+
+	/** The column of each word of the transitions of the second net, -1 for words without vector. */
+	private final IdentityHashMap<Transition, int[]> columnIndices = new IdentityHashMap<Transition, int[]>();
+
+	/**
+	 * Computes the similarities of the words of the transition labels of two labeled workflow nets.
+	 *
+	 * @param vectors The normalized word vectors, whose indices are usually attached to the transitions.
+	 * @param net1 The first labeled workflow net.
+	 * @param net2 The second labeled workflow net.
+	 */
+	public WordSimilarityMatrix(NormalizedWordVectors vectors, PetriNet net1, PetriNet net2) {
+		List<float[]> rowVectors = new ArrayList<float[]>();
+		List<float[]> columnVectors = new ArrayList<float[]>();
+		Map<Integer, Integer> rowsByWord = indexWords(vectors, net1, rowIndices, rowVectors);
+		Map<Integer, Integer> columnsByWord = indexWords(vectors, net2, columnIndices, columnVectors);
+		this.rows = rowVectors.size();
+		this.columns = columnVectors.size();
+		this.similarities = new float[rows * columns];
+		if (rows == 0 || columns == 0)
+			return;
+
+		int dimensions = rowVectors.get(0).length;
+		multiply(flatten(rowVectors, dimensions), flatten(columnVectors, dimensions), dimensions);
+
+		// A word compared with itself has a similarity of exactly 1, as with NormalizedWordVectors.
+		for (Map.Entry<Integer, Integer> entry: rowsByWord.entrySet()) {
+			Integer column = columnsByWord.get(entry.getKey());
+			if (column != null)
+				similarities[entry.getValue() * columns + column] = 1.0f;
+		}
+	}
+
+	/**
+	 * Returns the similarities of all pairs of words of two transitions.
+	 *
+	 * @param transition1 A transition of the first net.
+	 * @param transition2 A transition of the second net.
+	 * @return Returns the similarity of each pair of words, NaN if a word has no vector.
+	 * @throws IllegalArgumentException if a transition is not contained in its net.
+	 */
+	public float[][] getSimilarities(Transition transition1, Transition transition2) {
+		int[] wordRows = rowIndices.get(transition1);
+		int[] wordColumns = columnIndices.get(transition2);
+		if (wordRows == null || wordColumns == null)
+			throw new IllegalArgumentException("The transitions are not contained in the nets of the similarity matrix.");
+
+		float[][] result = new float[wordRows.length][wordColumns.length];
+		for (int i = 0; i < wordRows.length; i++) {
+			int offset = wordRows[i] * columns;
+			for (int j = 0; j < wordColumns.length; j++) {
+				result[i][j] = wordRows[i] < 0 || wordColumns[j] < 0 ? Float.NaN : similarities[offset + wordColumns[j]];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Assigns a row or column to each distinct word having a vector of the transitions of a net and stores the rows or columns of
+	 * the words of each transition. The words are identified by their indices in the normalized word vectors.
+	 *
+	 * @return Returns the row or column of each distinct word index.
+	 */
+	private static Map<Integer, Integer> indexWords(NormalizedWordVectors vectors, PetriNet net,
+			IdentityHashMap<Transition, int[]> indices, List<float[]> distinctVectors) {
+		Map<Integer, Integer> indexByWord = new HashMap<Integer, Integer>();
+		for (Transition transition: net.getTransitions()) {
+			int[] words = vectors.getWordIndices(transition);
+			int[] wordIndices = new int[words.length];
+			for (int i = 0; i < words.length; i++) {
+				if (words[i] < 0) {
+					wordIndices[i] = -1;
+					continue;
+				}
+				Integer index = indexByWord.get(words[i]);
+				if (index == null) {
+					index = distinctVectors.size();
+					indexByWord.put(words[i], index);
+					distinctVectors.add(vectors.getNormalizedVector(words[i]));
+				}
+				wordIndices[i] = index;
+			}
+			indices.put(transition, wordIndices);
+		}
+		return indexByWord;
+	}
+
+	private static float[] flatten(List<float[]> vectors, int dimensions) {
+		float[] flat = new float[vectors.size() * dimensions];
+		for (int i = 0; i < vectors.size(); i++) {
+			System.arraycopy(vectors.get(i), 0, flat, i * dimensions, dimensions);
+		}
+		return flat;
+	}
+
+	/**
+	 * Multiplies the row vectors with the transposed column vectors block by block. Two columns are computed together, so each value
+	 * of a row vector is loaded once for both of them. Each similarity is summed up in the same order as by NormalizedWordVectors.dot,
+	 * so the matrix contains exactly the same similarities as computed for single pairs of words.
+	 */
+	private void multiply(float[] rowVectors, float[] columnVectors, int dimensions) {
+		for (int blockStart = 0; blockStart < columns; blockStart += COLUMN_BLOCK_SIZE) {
+			int blockEnd = Math.min(blockStart + COLUMN_BLOCK_SIZE, columns);
+			for (int i = 0; i < rows; i++) {
+				int a = i * dimensions;
+				int j = blockStart;
+				for (; j + 1 < blockEnd; j += 2) {
+					int b = j * dimensions;
+					int c = b + dimensions;
+					float sumB0 = 0, sumB1 = 0, sumB2 = 0, sumB3 = 0;
+					float sumC0 = 0, sumC1 = 0, sumC2 = 0, sumC3 = 0;
+					int d = 0;
+					for (; d <= dimensions - 4; d += 4) {
+						float value0 = rowVectors[a + d], value1 = rowVectors[a + d + 1];
+						float value2 = rowVectors[a + d + 2], value3 = rowVectors[a + d + 3];
+						sumB0 += value0 * columnVectors[b + d];
+						sumB1 += value1 * columnVectors[b + d + 1];
+						sumB2 += value2 * columnVectors[b + d + 2];
+						sumB3 += value3 * columnVectors[b + d + 3];
+						sumC0 += value0 * columnVectors[c + d];
+						sumC1 += value1 * columnVectors[c + d + 1];
+						sumC2 += value2 * columnVectors[c + d + 2];
+						sumC3 += value3 * columnVectors[c + d + 3];
+					}
+					for (; d < dimensions; d++) {
+						sumB0 += rowVectors[a + d] * columnVectors[b + d];
+						sumC0 += rowVectors[a + d] * columnVectors[c + d];
+					}
+					similarities[i * columns + j] = (sumB0 + sumB1) + (sumB2 + sumB3);
+					similarities[i * columns + j + 1] = (sumC0 + sumC1) + (sumC2 + sumC3);
+				}
+				if (j < blockEnd)
+					similarities[i * columns + j] = dot(rowVectors, a, columnVectors, j * dimensions, dimensions);
+			}
+		}
+	}
+
+	/**
+	 * Computes the dot product of two vectors stored in arrays in the same order as NormalizedWordVectors.dot.
+	 */
+	private static float dot(float[] a, int offsetA, float[] b, int offsetB, int length) {
+		float sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+		int d = 0;
+		for (; d <= length - 4; d += 4) {
+			sum0 += a[offsetA + d] * b[offsetB + d];
+			sum1 += a[offsetA + d + 1] * b[offsetB + d + 1];
+			sum2 += a[offsetA + d + 2] * b[offsetB + d + 2];
+			sum3 += a[offsetA + d + 3] * b[offsetB + d + 3];
+		}
+		for (; d < length; d++) {
+			sum0 += a[offsetA + d] * b[offsetB + d];
+		}
+		return (sum0 + sum1) + (sum2 + sum3);
+	}
+
+	/* Getter methods */
+	/* ------------------------- */
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+	/* ------------------------- */
+}
@@ -0,0 +1,73 @@
+/**
+ * Part of the Triple-S Process Model Matching package.
+ * 
+ * Copyright 2017 by Andreas Schoknecht <andreas_schoknecht@web.de>
+ *
+ * This source code is made available under the terms of the Eclipse Public License v1.0 
+ * which accompanies this distribution, and is available at http://www.eclipse.org/legal/epl-v10.html.
+ * 
+ * @author Andreas Schoknecht
+ */
+
+package de.andreasschoknecht.WordVectors;
+
+import de.andreasschoknecht.PetriNet.Transition;
+
+/**
+ * The interface WordVectorSimilarity represents a source of word embeddings computing the cosine similarity of two words, as used by
+ * the semantic matcher of the Triple-S2 approach. Implementations are only read during matching and have to be thread-safe.
+ */
+public interface WordVectorSimilarity {
+
+	/**
+	 * Computes the cosine similarity of the vectors of two words. Like Word2Vec, implementations return NaN if one of the words has
+	 * no vector and 1 if both words are equal.
+	 *
+	 * @param word1 The first word.
+	 * @param word2 The second word.
+	 * @return Returns the cosine similarity or NaN if one of the words is unknown.
+	 */
+	public float similarity(String word1, String word2);
+
+	/**
+	 * Checks whether a word has a vector.
+	 *
+	 * @param word The word.
+	 * @return Returns true if the word has a vector.
+	 */
+	public boolean hasWord(String word);
+
+	/**
+	 * Returns the vector of a word.
+	 *
+	 * @param word The word.
+	 * @return Returns a copy of the vector or null if the word has no vector.
+	 */
+	public float[] getVector(String word);
+
+	/**
+	 * Looks up the indices of the words of the preprocessed label of a transition, if the vectors are held in a store which can be
+	 * accessed by index. The words of two transitions can then be compared by similarity(int, int) without looking up any word.
+	 * Sources without such a store return null, and their words are compared by similarity(String, String).
+	 *
+	 * @param transition The transition.
+	 * @return Returns the index of each word, -1 for words without vector, or null if the vectors cannot be accessed by index.
+	 */
+	public default int[] getWordIndices(Transition transition) {
+		return null;
+	}
+
+	/**
+	 * Computes the cosine similarity of two words given by their indices returned by getWordIndices. Like similarity(String, String),
+	 * implementations return NaN if one of the words has no vector and 1 if both words are equal.
+	 *
+	 * @param index1 The index of the first word or -1.
+	 * @param index2 The index of the second word or -1.
+	 * @return Returns the cosine similarity or NaN if one of the indices is -1.
+	 * @throws UnsupportedOperationException if the vectors cannot be accessed by index.
+	 */
+	public default float similarity(int index1, int index2) {
+		throw new UnsupportedOperationException(getClass().getName() + " cannot compare words by index.");
+	}
+
+}